@@ -0,0 +1,66 @@
+package com.bookfair.system.benchmark;
+
+import com.bookfair.system.service.EmailService;
+import com.bookfair.system.service.QrCodeRenderer;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * EmailService message building: template rendering plus the MIME encoding
+ * the SMTP client does before sending (multipart with the inline QR PNG for
+ * the confirmation, plain HTML for announcements). Nothing is sent.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmailBenchmark {
+
+    private static final String STALLS = "A12 (SMALL), B7 (MEDIUM), C31 (LARGE)";
+    private static final String ANNOUNCEMENT = "Gates open at 8.30 a.m. on Saturday.\n"
+            + "Please bring your QR pass & NIC; loading bays close at 9.15 a.m. <sharp>.";
+
+    private EmailService emailService;
+    private byte[] qrPng;
+
+    @Setup
+    public void setUp() throws Exception {
+        emailService = new EmailService(new JavaMailSenderImpl());
+        ReflectionTestUtils.setField(emailService, "fromEmail", "bookfair.system@example.com");
+        qrPng = new QrCodeRenderer().renderPng("RES-1A2B3C4D", 250);
+    }
+
+    @Benchmark
+    public MimeMessage reservationConfirmed() throws MessagingException, IOException {
+        MimeMessage message = emailService.createReservationEmail(EmailService.RESERVATION_SUBJECT,
+                "vendor42@fair.test", "Nimal Perera", "0771234567", "PENDING", qrPng, STALLS);
+        message.writeTo(OutputStream.nullOutputStream());
+        return message;
+    }
+
+    @Benchmark
+    public MimeMessage announcement() throws MessagingException, IOException {
+        MimeMessage message = emailService.createAnnouncementEmail("vendor42@fair.test", "Nimal Perera",
+                "Opening day arrangements", ANNOUNCEMENT);
+        message.writeTo(OutputStream.nullOutputStream());
+        return message;
+    }
+}
@@ -0,0 +1,150 @@
+package com.bookfair.system.benchmark;
+
+import com.bookfair.system.dto.response.AdminReservationResponse;
+import com.bookfair.system.dto.response.QrVerificationResponse;
+import com.bookfair.system.dto.response.StallAvailabilityResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of the large admin/employee response lists, with
+ * the mapper defaults Spring MVC uses. Roughly a third of the stalls are
+ * reserved (vendor fields filled) and reservations carry 1-3 stalls.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonBenchmark {
+
+    private static final String[] SIZES = { "SMALL", "MEDIUM", "LARGE" };
+    private static final double[] PRICES = { 5000.0, 10000.0, 15000.0 };
+    private static final String[] GENRES = { "Fiction", "Children", "Education", "Science", "History" };
+
+    @Param({ "100", "1000", "10000" })
+    public int size;
+
+    private final JsonMapper mapper = JsonMapper.builder().build();
+    private List<StallAvailabilityResponse> availability;
+    private List<AdminReservationResponse> reservations;
+    private List<QrVerificationResponse> verifications;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(21);
+        LocalDateTime now = LocalDateTime.of(2026, 9, 1, 9, 30);
+
+        availability = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            int type = random.nextInt(SIZES.length);
+            boolean reserved = random.nextInt(3) == 0;
+            StallAvailabilityResponse.StallAvailabilityResponseBuilder stall = StallAvailabilityResponse.builder()
+                    .id((long) i)
+                    .stallCode(stallCode(i))
+                    .floorName("Hall " + (char) ('A' + i % 5))
+                    .floorId((long) i % 5 + 1)
+                    .size(SIZES[type])
+                    .price(PRICES[type])
+                    .reserved(reserved)
+                    .statusLabel(reserved ? "RESERVED" : "AVAILABLE");
+            if (reserved) {
+                stall.reservationId((long) i)
+                        .reservationDate(now.minusMinutes(random.nextInt(100_000)))
+                        .reservationStatus("CONFIRMED")
+                        .vendorId((long) i + 2)
+                        .vendorName("Vendor " + i)
+                        .vendorEmail("vendor" + i + "@fair.test")
+                        .vendorContact("07" + (10_000_000 + i))
+                        .vendorBusiness("Books " + i)
+                        .vendorGenres(List.of(GENRES[i % GENRES.length], GENRES[(i + 2) % GENRES.length]));
+            }
+            availability.add(stall.build());
+        }
+
+        reservations = new ArrayList<>(size);
+        verifications = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            int stallCount = 1 + random.nextInt(3);
+            String token = String.format("RES-%08X", random.nextInt());
+            List<AdminReservationResponse.StallDetail> stalls = new ArrayList<>(stallCount);
+            List<QrVerificationResponse.StallDetail> qrStalls = new ArrayList<>(stallCount);
+            double total = 0;
+            for (int s = 0; s < stallCount; s++) {
+                long stallId = random.nextInt(Math.max(size, 500)) + 1;
+                int type = random.nextInt(SIZES.length);
+                total += PRICES[type];
+                stalls.add(new AdminReservationResponse.StallDetail(stallId, stallCode(stallId), "CONFIRMED"));
+                qrStalls.add(QrVerificationResponse.StallDetail.builder()
+                        .id(stallId)
+                        .stallCode(stallCode(stallId))
+                        .size(SIZES[type])
+                        .floorName("Hall " + (char) ('A' + stallId % 5))
+                        .price(PRICES[type])
+                        .build());
+            }
+            LocalDateTime bookedAt = now.minusMinutes(random.nextInt(100_000));
+            reservations.add(new AdminReservationResponse((long) i, "vendor" + i + "@fair.test", "Vendor " + i,
+                    bookedAt, token, "CONFIRMED", stalls));
+            verifications.add(QrVerificationResponse.builder()
+                    .accessGranted(true)
+                    .message("Access Granted: Valid Reservation.")
+                    .user(QrVerificationResponse.UserDetails.builder()
+                            .id((long) i + 2)
+                            .name("Vendor " + i)
+                            .email("vendor" + i + "@fair.test")
+                            .contactNumber("07" + (10_000_000 + i))
+                            .businessName("Books " + i)
+                            .role("VENDOR")
+                            .build())
+                    .reservation(QrVerificationResponse.ReservationDetails.builder()
+                            .id((long) i)
+                            .status("CONFIRMED")
+                            .reservationDate(bookedAt.toString())
+                            .stalls(qrStalls)
+                            .payment(QrVerificationResponse.PaymentDetail.builder()
+                                    .amount(total)
+                                    .paymentStatus(i % 3 == 0 ? "PENDING" : "PAID")
+                                    .paymentMethod(i % 3 == 0 ? "CASH_ON_DATE" : "CARD")
+                                    .build())
+                            .build())
+                    .build());
+        }
+    }
+
+    private static String stallCode(long id) {
+        return (char) ('A' + id % 5) + String.valueOf(id / 5 + 1);
+    }
+
+    @Benchmark
+    public byte[] stallAvailability() {
+        return mapper.writeValueAsBytes(availability);
+    }
+
+    @Benchmark
+    public byte[] adminReservations() {
+        return mapper.writeValueAsBytes(reservations);
+    }
+
+    @Benchmark
+    public byte[] qrVerifications() {
+        return mapper.writeValueAsBytes(verifications);
+    }
+}
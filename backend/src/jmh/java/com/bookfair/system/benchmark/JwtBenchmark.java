@@ -0,0 +1,86 @@
+package com.bookfair.system.benchmark;
+
+import com.bookfair.system.security.jwt.JwtUtils;
+import com.bookfair.system.security.services.UserDetailsImpl;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JwtUtils token issue (signin) and verification (every authenticated
+ * request), HS256 with a 512-bit key and the configured expiry.
+ * {@code legacyRequest} is the per-request path AuthTokenFilter used to take:
+ * decode the secret and build a key and parser to validate the token, then
+ * do it all again to parse the subject. {@code request} is the current path,
+ * one {@link JwtUtils#verify} call.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+    private static final int EXPIRATION_MS = 3_000_000;
+
+    private String secret;
+    private JwtUtils jwtUtils;
+    private Authentication authentication;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        byte[] key = new byte[64];
+        new Random(21).nextBytes(key);
+        secret = Base64.getEncoder().encodeToString(key);
+        jwtUtils = new JwtUtils(secret, EXPIRATION_MS, new SimpleMeterRegistry());
+
+        UserDetailsImpl principal = new UserDetailsImpl(42L, "vendor42@fair.test", "",
+                List.of(new SimpleGrantedAuthority("ROLE_VENDOR")));
+        authentication = new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+        token = jwtUtils.generateJwtToken(authentication);
+    }
+
+    @Benchmark
+    public String generate() {
+        return jwtUtils.generateJwtToken(authentication);
+    }
+
+    @Benchmark
+    public boolean validate() {
+        return jwtUtils.verify(token) != null;
+    }
+
+    @Benchmark
+    public String request() {
+        return jwtUtils.verify(token).subject();
+    }
+
+    @Benchmark
+    public String legacyRequest() {
+        Jwts.parserBuilder().setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret))).build()
+                .parseClaimsJws(token);
+        return Jwts.parserBuilder().setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret))).build()
+                .parseClaimsJws(token).getBody().getSubject();
+    }
+}
@@ -0,0 +1,75 @@
+package com.bookfair.system.benchmark;
+
+import com.bookfair.system.service.QrCodeRenderer;
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.WriterException;
+import com.google.zxing.client.j2se.MatrixToImageWriter;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * QR pass rendering at the size served and mailed (250px) for reservation
+ * tokens of the real shape ("RES-" + 8 hex digits). {@code zxingImageIo} is
+ * the QRCodeWriter + MatrixToImageWriter path the renderer replaced.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QrCodeBenchmark {
+
+    private static final int SIZE = 250;
+
+    private final QrCodeRenderer renderer = new QrCodeRenderer();
+    private final QRCodeWriter writer = new QRCodeWriter();
+    private String[] tokens;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(21);
+        tokens = new String[1024];
+        for (int i = 0; i < tokens.length; i++) {
+            tokens[i] = String.format("RES-%08X", random.nextInt());
+        }
+    }
+
+    private String token() {
+        return tokens[next++ & (tokens.length - 1)];
+    }
+
+    @Benchmark
+    public byte[] png() throws WriterException {
+        return renderer.renderPng(token(), SIZE);
+    }
+
+    @Benchmark
+    public String svg() throws WriterException {
+        return renderer.renderSvg(token(), SIZE);
+    }
+
+    @Benchmark
+    public byte[] zxingImageIo() throws WriterException, IOException {
+        BitMatrix matrix = writer.encode(token(), BarcodeFormat.QR_CODE, SIZE, SIZE);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        MatrixToImageWriter.writeToStream(matrix, "PNG", out);
+        return out.toByteArray();
+    }
+}
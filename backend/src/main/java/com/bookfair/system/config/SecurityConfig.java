@@ -1,11 +1,13 @@
 package com.bookfair.system.config;
 
+import com.bookfair.system.controller.vendor_and_publishers.StallController;
 import com.bookfair.system.security.jwt.AuthEntryPointJwt;
 import com.bookfair.system.security.jwt.AuthTokenFilter;
 import com.bookfair.system.security.services.UserDetailsServiceImpl;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
@@ -62,7 +64,12 @@ public class SecurityConfig {
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/api/auth/**").permitAll()
                         .requestMatchers("/api/stalls/**").permitAll()
+                        .requestMatchers(HttpMethod.GET,
+                                "/api/vendor-publishers/reservations/*/qr.png",
+                                "/api/vendor-publishers/reservations/*/qr.svg").permitAll()
                         .requestMatchers("/api/employee/**").hasRole("EMPLOYEE")
+                        // Management port is bound to localhost (management.server.*)
+                        .requestMatchers("/actuator/**").permitAll()
                         .anyRequest().authenticated());
 
         http.authenticationProvider(authenticationProvider());
@@ -77,6 +84,7 @@ public class SecurityConfig {
         configuration.setAllowedOrigins(List.of("http://localhost:5173"));
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type"));
+        configuration.setExposedHeaders(List.of(StallController.STALL_VERSION_HEADER));
         configuration.setAllowCredentials(true);
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -0,0 +1,109 @@
+package com.bookfair.system.config.sql;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.TreeMap;
+
+/**
+ * Thin JDK-proxy wrapper around the pool's DataSource that times every
+ * statement execution. Each execute call (a batch counts once) is added to
+ * the request's SqlStats, and executions slower than the threshold are logged
+ * with their SQL and the shape of their bind parameters (index and type, never
+ * the values). unwrap/isWrapperFor pass through, so pool metrics still find
+ * the underlying HikariDataSource.
+ */
+final class InspectingDataSource {
+
+    private static final Logger log = LoggerFactory.getLogger("com.bookfair.system.sql.slow");
+
+    private InspectingDataSource() {
+    }
+
+    static DataSource wrap(DataSource target, long slowThresholdMs) {
+        long slowNanos = slowThresholdMs * 1_000_000;
+        return proxy(DataSource.class, target, (proxy, method, args) -> {
+            Object result = invoke(target, method, args);
+            if (result instanceof Connection connection && method.getName().equals("getConnection")) {
+                return wrapConnection(connection, slowNanos);
+            }
+            return result;
+        });
+    }
+
+    private static Connection wrapConnection(Connection target, long slowNanos) {
+        return proxy(Connection.class, target, (proxy, method, args) -> {
+            Object result = invoke(target, method, args);
+            String name = method.getName();
+            if (result instanceof CallableStatement statement && name.equals("prepareCall")) {
+                return wrapStatement(CallableStatement.class, statement, (String) args[0], slowNanos);
+            }
+            if (result instanceof PreparedStatement statement && name.equals("prepareStatement")) {
+                return wrapStatement(PreparedStatement.class, statement, (String) args[0], slowNanos);
+            }
+            if (result instanceof Statement statement && name.equals("createStatement")) {
+                return wrapStatement(Statement.class, statement, null, slowNanos);
+            }
+            return result;
+        });
+    }
+
+    private static <T extends Statement> T wrapStatement(Class<T> type, T target, String preparedSql, long slowNanos) {
+        // Bind shape of the current parameter set: index -> type name
+        TreeMap<Integer, String> binds = new TreeMap<>();
+        return proxy(type, target, (proxy, method, args) -> {
+            String name = method.getName();
+            if (name.startsWith("execute")) {
+                long start = System.nanoTime();
+                try {
+                    return invoke(target, method, args);
+                } finally {
+                    long elapsed = System.nanoTime() - start;
+                    SqlStats.record(elapsed);
+                    if (slowNanos >= 0 && elapsed >= slowNanos) {
+                        String sql = preparedSql != null ? preparedSql
+                                : (args != null && args.length > 0 && args[0] instanceof String s ? s : "?");
+                        log.warn("Slow SQL ({} ms, {}): {} binds={}",
+                                elapsed / 1_000_000, name, sql, binds);
+                    }
+                }
+            }
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                binds.put(index, name.equals("setNull") || args[1] == null
+                        ? "null"
+                        : args[1].getClass().getSimpleName());
+            } else if (name.equals("clearParameters")) {
+                binds.clear();
+            }
+            return invoke(target, method, args);
+        });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(InspectingDataSource.class.getClassLoader(), new Class<?>[] { type },
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "toString" -> "Inspecting[" + target + "]";
+                    default -> handler.invoke(proxy, method, args);
+                });
+    }
+}
@@ -0,0 +1,39 @@
+package com.bookfair.system.config.sql;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Lightweight per-request SQL accounting (statement count, JDBC time,
+ * slow-query log) as a cheap alternative to spring.jpa.show-sql. Disable with
+ * app.sql.inspect.enabled=false.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.sql.inspect.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlInspectionConfig {
+
+    /** Wraps the pool; static so it applies before the DataSource is used. */
+    @Bean
+    static BeanPostProcessor inspectingDataSourcePostProcessor(
+            @Value("${app.sql.slow-query-ms:200}") long slowQueryMs) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource
+                        ? InspectingDataSource.wrap(dataSource, slowQueryMs)
+                        : bean;
+            }
+        };
+    }
+
+    @Bean
+    SqlStatsFilter sqlStatsFilter(MeterRegistry meterRegistry) {
+        return new SqlStatsFilter(meterRegistry);
+    }
+}
@@ -0,0 +1,49 @@
+package com.bookfair.system.config.sql;
+
+/**
+ * Statement count and accumulated JDBC time for the current HTTP request.
+ * Bound to the request thread by SqlStatsFilter; statements executed on other
+ * threads (mail dispatcher, SSE snapshot refresh) are not attributed to it.
+ */
+public final class SqlStats {
+
+    private static final ThreadLocal<SqlStats> CURRENT = new ThreadLocal<>();
+
+    private int statements;
+    private long nanos;
+
+    static SqlStats begin() {
+        SqlStats stats = new SqlStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    /** Stats of the request on this thread, or null outside a request. */
+    public static SqlStats current() {
+        return CURRENT.get();
+    }
+
+    static void record(long elapsedNanos) {
+        SqlStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.statements++;
+            stats.nanos += elapsedNanos;
+        }
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    public long getMillis() {
+        return nanos / 1_000_000;
+    }
+}
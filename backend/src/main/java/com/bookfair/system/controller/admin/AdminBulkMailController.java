@@ -0,0 +1,60 @@
+package com.bookfair.system.controller.admin;
+
+import com.bookfair.system.dto.request.BulkMailRequest;
+import com.bookfair.system.dto.response.BulkMailJobResponse;
+import com.bookfair.system.security.services.UserDetailsImpl;
+import com.bookfair.system.service.BulkMailService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/bulk-mail")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminBulkMailController {
+
+    private final BulkMailService bulkMailService;
+
+    /**
+     * POST /api/admin/bulk-mail
+     * Starts a job (QR_PASS re-issue or ANNOUNCEMENT) and returns immediately;
+     * poll GET /{id} for progress.
+     */
+    @PostMapping
+    public ResponseEntity<BulkMailJobResponse> startJob(@AuthenticationPrincipal UserDetailsImpl currentUser,
+            @Valid @RequestBody BulkMailRequest request) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(bulkMailService.start(request, currentUser != null ? currentUser.getEmail() : null));
+    }
+
+    /** GET /api/admin/bulk-mail */
+    @GetMapping
+    public ResponseEntity<List<BulkMailJobResponse>> getJobs() {
+        return ResponseEntity.ok(bulkMailService.getJobs());
+    }
+
+    /** GET /api/admin/bulk-mail/{id} */
+    @GetMapping("/{id}")
+    public ResponseEntity<BulkMailJobResponse> getJob(@PathVariable Long id) {
+        return ResponseEntity.ok(bulkMailService.getJob(id));
+    }
+
+    /** POST /api/admin/bulk-mail/{id}/resume */
+    @PostMapping("/{id}/resume")
+    public ResponseEntity<BulkMailJobResponse> resumeJob(@PathVariable Long id) {
+        return ResponseEntity.ok(bulkMailService.resume(id));
+    }
+
+    /** POST /api/admin/bulk-mail/{id}/cancel */
+    @PostMapping("/{id}/cancel")
+    public ResponseEntity<BulkMailJobResponse> cancelJob(@PathVariable Long id) {
+        return ResponseEntity.ok(bulkMailService.cancel(id));
+    }
+}
@@ -1,12 +1,17 @@
 package com.bookfair.system.controller.admin;
 
 import com.bookfair.system.dto.response.AdminReservationResponse;
+import com.bookfair.system.dto.response.PageResponse;
 import com.bookfair.system.service.ReservationService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -14,6 +19,8 @@ import java.util.List;
 @RequiredArgsConstructor
 public class AdminReservationController {
 
+    private static final int MAX_PAGE_SIZE = 200;
+
     private final ReservationService reservationService;
 
     @GetMapping
@@ -22,6 +29,25 @@ public class AdminReservationController {
         return ResponseEntity.ok(reservationService.getAllReservations());
     }
 
+    /**
+     * GET /api/admin/reservations/search?status=&floorId=&from=&to=&page=0&size=50
+     * Paged, filtered listing. Dates are ISO date-times; "to" is exclusive.
+     */
+    @GetMapping("/search")
+    @PreAuthorize("hasAnyRole('ADMIN', 'EMPLOYEE')")
+    public ResponseEntity<PageResponse<AdminReservationResponse>> searchReservations(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Long floorId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+        Pageable pageable = PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE));
+        String statusFilter = (status != null && !status.isBlank()) ? status.toUpperCase() : null;
+        return ResponseEntity.ok(PageResponse.of(
+                reservationService.searchReservations(statusFilter, floorId, from, to, pageable)));
+    }
+
     @PutMapping("/{id}/status")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<AdminReservationResponse> updateReservationStatus(@PathVariable Long id,
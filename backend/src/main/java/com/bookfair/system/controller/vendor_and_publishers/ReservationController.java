@@ -2,20 +2,34 @@ package com.bookfair.system.controller.vendor_and_publishers;
 
 import com.bookfair.system.dto.request.ReservationRequest;
 import com.bookfair.system.dto.response.ReservationResponse;
+import com.bookfair.system.exception.StallUnavailableException;
+import com.bookfair.system.service.QrCodeService;
 import com.bookfair.system.service.ReservationService;
 import com.bookfair.system.security.services.UserDetailsImpl;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/vendor-publishers/reservations")
 @RequiredArgsConstructor
 public class ReservationController {
 
+    private static final CacheControl QR_CACHE_CONTROL = CacheControl.maxAge(Duration.ofDays(365))
+            .cachePublic()
+            .immutable();
+
     private final ReservationService reservationService;
+    private final QrCodeService qrCodeService;
 
     @PostMapping
     public ResponseEntity<?> makeReservation(
@@ -24,6 +38,10 @@ public class ReservationController {
         try {
             ReservationResponse response = reservationService.createReservation(currentUser.getId(), request);
             return ResponseEntity.ok(response);
+        } catch (StallUnavailableException e) {
+            return ResponseEntity.status(409)
+                    .body(Map.of("error", "STALL_UNAVAILABLE", "message", e.getMessage(),
+                            "stallIds", e.getStallIds()));
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
@@ -35,14 +53,89 @@ public class ReservationController {
         return ResponseEntity.ok(count);
     }
 
+    /** GET /my?inlineQr=true embeds the Base64 QR PNG; by default only qrCodeUrl is returned. */
     @GetMapping("/my")
     public ResponseEntity<java.util.List<ReservationResponse>> getMyReservations(
-            @AuthenticationPrincipal UserDetailsImpl currentUser) {
-        System.out.println("Fetching reservations for user ID: " + currentUser.getId());
-        java.util.List<ReservationResponse> reservations = reservationService
-                .getUserReservations(currentUser.getId());
-        System.out.println("Found " + reservations.size() + " reservations for user ID: " + currentUser.getId());
-        return ResponseEntity.ok(reservations);
+            @AuthenticationPrincipal UserDetailsImpl currentUser,
+            @RequestParam(defaultValue = "false") boolean inlineQr) {
+        return ResponseEntity.ok(reservationService.getUserReservations(currentUser.getId(), inlineQr));
+    }
+
+    /**
+     * GET /{code}/qr.png?sig=...
+     * Raw PNG of the reservation QR pass, publicly readable (usable from an
+     * img tag) through the signed qrCodeUrl handed to the vendor. A missing or
+     * wrong signature and an unknown code get the same 404, so the endpoint
+     * cannot be used to probe for reservation codes. The output never changes
+     * for a code, so it is served with a strong ETag and an immutable
+     * Cache-Control.
+     */
+    @GetMapping(value = "/{code}/qr.png", produces = MediaType.IMAGE_PNG_VALUE)
+    public ResponseEntity<byte[]> getQrImage(@PathVariable String code,
+            @RequestParam(required = false) String sig,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (!isServable(code, sig)) {
+            return ResponseEntity.notFound().build();
+        }
+        String etag = qrCodeService.etag(code);
+        if (etagMatches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(QR_CACHE_CONTROL)
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(QR_CACHE_CONTROL)
+                .contentType(MediaType.IMAGE_PNG)
+                .body(qrCodeService.getPng(code));
+    }
+
+    /**
+     * GET /{code}/qr.svg?sig=...
+     * Same QR pass as a compact SVG document, with the same signature and
+     * caching rules as qr.png.
+     */
+    @GetMapping(value = "/{code}/qr.svg", produces = "image/svg+xml")
+    public ResponseEntity<String> getQrSvg(@PathVariable String code,
+            @RequestParam(required = false) String sig,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (!isServable(code, sig)) {
+            return ResponseEntity.notFound().build();
+        }
+        String etag = qrCodeService.etag(code + "-svg");
+        if (etagMatches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(QR_CACHE_CONTROL)
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(QR_CACHE_CONTROL)
+                .contentType(MediaType.valueOf("image/svg+xml"))
+                .body(qrCodeService.getSvg(code));
+    }
+
+    /** Signature first (no DB access for forged URLs), then the code must exist. */
+    private boolean isServable(String code, String sig) {
+        return qrCodeService.isValidSignature(code, sig) && reservationService.isKnownReservationCode(code);
+    }
+
+    private static boolean etagMatches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals("*") || value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     @DeleteMapping("/{stallId}")
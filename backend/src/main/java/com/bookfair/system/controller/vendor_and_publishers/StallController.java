@@ -1,51 +1,71 @@
 package com.bookfair.system.controller.vendor_and_publishers;
 
+import com.bookfair.system.dto.response.StallChangesResponse;
 import com.bookfair.system.dto.response.StallResponse;
 import com.bookfair.system.entity.Floor;
-import com.bookfair.system.entity.Stall;
 import com.bookfair.system.repository.FloorRepository;
-import com.bookfair.system.repository.StallRepository;
+import com.bookfair.system.service.StallEventBroadcaster;
+import com.bookfair.system.service.StallSnapshotService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/stalls")
 @RequiredArgsConstructor
 public class StallController {
 
-    private final StallRepository stallRepository;
+    public static final String STALL_VERSION_HEADER = "X-Stall-Version";
+
     private final FloorRepository floorRepository;
+    private final StallSnapshotService stallSnapshotService;
+    private final StallEventBroadcaster stallEventBroadcaster;
 
     @GetMapping("/halls")
     public ResponseEntity<List<Floor>> getAllHalls() {
         return ResponseEntity.ok(floorRepository.findAll());
     }
 
+    /**
+     * GET /api/stalls?floorId=
+     * Served from the in-memory availability snapshot. The snapshot version is
+     * returned in X-Stall-Version for use with /changes.
+     */
     @GetMapping
     public ResponseEntity<List<StallResponse>> getAllStalls(@RequestParam(required = false) Long floorId) {
-        List<Stall> stalls;
+        StallSnapshotService.VersionedStalls snapshot = stallSnapshotService.getStalls(floorId);
+        return ResponseEntity.ok()
+                .header(STALL_VERSION_HEADER, String.valueOf(snapshot.version()))
+                .body(snapshot.stalls());
+    }
 
-        if (floorId != null) {
-            stalls = stallRepository.findByFloorId(floorId);
-        } else {
-            stalls = stallRepository.findAllWithFloors();
-        }
+    /**
+     * GET /api/stalls/changes?since={version}
+     * Only the stalls changed after the given version (full list if unknown).
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<StallChangesResponse> getChanges(@RequestParam long since) {
+        return ResponseEntity.ok(stallSnapshotService.getChangesSince(since));
+    }
 
-        List<StallResponse> response = stalls.stream().map(stall -> {
-            return new StallResponse(
-                    stall.getId(),
-                    stall.getStallCode(),
-                    stall.getSize(),
-                    stall.getPrice(),
-                    stall.isReserved(),
-                    stall.isDisabled(),
-                    stall.getFloor().getFloorName());
-        }).collect(Collectors.toList());
-
-        return ResponseEntity.ok(response);
+    /**
+     * GET /api/stalls/stream
+     * Server-Sent Events feed of stall changes ("changes" events carrying the
+     * same payload as /changes, event id = snapshot version). Reconnecting
+     * clients send Last-Event-ID and receive only what they missed.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamChanges(
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        SseEmitter emitter = stallEventBroadcaster.subscribe(lastEventId);
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok(emitter);
     }
-}
\ No newline at end of file
+}
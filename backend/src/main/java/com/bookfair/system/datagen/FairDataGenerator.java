@@ -0,0 +1,418 @@
+package com.bookfair.system.datagen;
+
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Deterministic synthetic fair for scale testing and benchmark runs.
+ *
+ * Loads floors, stall types, stalls, an admin, employees, vendors with
+ * genres, reservations (with cancellation history), payments and duties
+ * straight into PostgreSQL with COPY, in one transaction. The same settings
+ * and seed always produce the same rows. Cancellations follow the
+ * application's model: a cancelled stall keeps its link with
+ * {@code cancelled_at} set, and a booking whose stalls are all cancelled is
+ * set to CANCELLED. Once every vendor holds 3 stalls or no stall is free,
+ * further bookings are written as cancelled history.
+ *
+ * Run from backend/ against an existing schema (the tables the app uses):
+ * <pre>
+ * mvn -q compile exec:java -Dexec.mainClass=com.bookfair.system.datagen.FairDataGenerator \
+ *     -Dexec.args="--url=jdbc:postgresql://localhost:5432/bookfair_scale --user=postgres --password=secret \
+ *                  --stalls=5000 --vendors=3000 --reservations=20000 --truncate"
+ * </pre>
+ * Other options: --seed, --floors, --stall-types, --employees, --duties,
+ * --cancel-rate, --disabled-rate, --user-password (password of every
+ * generated user), --start (fair opening, ISO date-time).
+ */
+@Slf4j
+public final class FairDataGenerator {
+
+    private static final String[] SIZES = { "SMALL", "MEDIUM", "LARGE", "XLARGE", "CORNER", "PAVILION" };
+    private static final double[] PRICES = { 5000.0, 10000.0, 15000.0, 20000.0, 25000.0, 40000.0 };
+    private static final String[] GENRES = { "Fiction", "Children", "Education", "Science", "History",
+            "Religion", "Poetry", "Comics", "Travel", "Cookery", "Biography", "Languages", "Law", "Medicine",
+            "Engineering", "Art", "Philosophy", "Sports", "Business", "Translations" };
+    private static final String[] DUTIES = { "Gate ticket scanning", "Stall allocation desk", "Floor patrol",
+            "Loading bay coordination", "Information counter", "Vendor help desk" };
+    private static final int MAX_STALLS_PER_VENDOR = 3;
+
+    private static final String TABLES = "payments, reservation_stalls, reservations, user_genres, duties, "
+            + "stalls, stall_types, floors, genres, users, mail_outbox, bulk_mail_jobs";
+    private static final String[] ID_TABLES = { "floors", "stall_types", "genres", "stalls", "users",
+            "reservations", "reservation_stalls", "payments", "duties" };
+
+    /** Sizes of the generated fair. {@code reservations} counts bookings, cancelled ones included. */
+    public record Settings(long seed, int floors, int stallTypes, int stalls, int vendors, int employees,
+            int reservations, double cancelRate, double disabledRate, int duties, String userPassword,
+            LocalDateTime start) {
+
+        public static Settings defaults() {
+            return new Settings(42L, 5, 3, 5000, 3000, 20, 20000, 0.25, 0.02, 500, "password",
+                    LocalDateTime.of(2026, 9, 1, 9, 0));
+        }
+    }
+
+    private final Settings settings;
+
+    public FairDataGenerator(Settings settings) {
+        if (settings.stallTypes() < 1 || settings.stallTypes() > SIZES.length) {
+            throw new IllegalArgumentException("stall-types must be between 1 and " + SIZES.length);
+        }
+        if (settings.floors() < 1 || settings.vendors() < 1) {
+            throw new IllegalArgumentException("floors and vendors must be at least 1");
+        }
+        this.settings = settings;
+    }
+
+    public static void main(String[] args) throws SQLException {
+        Map<String, String> options = parseOptions(args);
+        Settings defaults = Settings.defaults();
+        Settings settings = new Settings(
+                Long.parseLong(options.getOrDefault("seed", String.valueOf(defaults.seed()))),
+                intOption(options, "floors", defaults.floors()),
+                intOption(options, "stall-types", defaults.stallTypes()),
+                intOption(options, "stalls", defaults.stalls()),
+                intOption(options, "vendors", defaults.vendors()),
+                intOption(options, "employees", defaults.employees()),
+                intOption(options, "reservations", defaults.reservations()),
+                Double.parseDouble(options.getOrDefault("cancel-rate", String.valueOf(defaults.cancelRate()))),
+                Double.parseDouble(options.getOrDefault("disabled-rate", String.valueOf(defaults.disabledRate()))),
+                intOption(options, "duties", defaults.duties()),
+                options.getOrDefault("user-password", defaults.userPassword()),
+                options.containsKey("start") ? LocalDateTime.parse(options.get("start")) : defaults.start());
+
+        String url = options.getOrDefault("url", "jdbc:postgresql://localhost:5432/bookfair_db");
+        try (Connection connection = DriverManager.getConnection(url,
+                options.getOrDefault("user", "postgres"), options.getOrDefault("password", ""))) {
+            new FairDataGenerator(settings).generate(connection, options.containsKey("truncate"));
+        }
+    }
+
+    /**
+     * Loads the fair in one transaction and returns the row count per table.
+     * Existing fair data is removed when {@code truncate} is set; otherwise the
+     * tables must be empty.
+     */
+    public Map<String, Long> generate(Connection connection, boolean truncate) throws SQLException {
+        long started = System.nanoTime();
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            if (truncate) {
+                statement.execute("TRUNCATE TABLE " + TABLES + " RESTART IDENTITY CASCADE");
+            } else if (hasRows(statement, "users") || hasRows(statement, "stalls")) {
+                throw new IllegalStateException("Target database already holds fair data; pass --truncate");
+            }
+
+            CopyManager copy = connection.unwrap(PGConnection.class).getCopyAPI();
+            Map<String, Long> counts = new LinkedHashMap<>();
+            counts.put("floors", writeFloors(copy));
+            counts.put("stall_types", writeStallTypes(copy));
+            counts.put("genres", writeGenres(copy));
+            int[] stallTypes = new int[settings.stalls()];
+            boolean[] disabled = new boolean[settings.stalls()];
+            counts.put("stalls", writeStalls(copy, stallTypes, disabled));
+            counts.put("users", writeUsers(copy));
+            counts.put("user_genres", writeUserGenres(copy));
+            counts.putAll(writeReservations(copy, stallTypes, disabled));
+            counts.put("duties", writeDuties(copy));
+
+            // Reserved flags follow the active CONFIRMED links, as the booking path keeps them
+            statement.executeUpdate("UPDATE stalls s SET reserved = true FROM reservation_stalls rs "
+                    + "JOIN reservations r ON r.id = rs.reservation_id "
+                    + "WHERE rs.stall_id = s.id AND rs.cancelled_at IS NULL AND r.status = 'CONFIRMED'");
+            for (String table : ID_TABLES) {
+                statement.execute("SELECT setval(pg_get_serial_sequence('" + table + "', 'id'), "
+                        + "COALESCE((SELECT MAX(id) FROM " + table + "), 0) + 1, false)");
+            }
+            statement.execute("ANALYZE");
+            connection.commit();
+
+            long rows = counts.values().stream().mapToLong(Long::longValue).sum();
+            log.info("Generated {} rows in {} ms (seed {}): {}", rows,
+                    (System.nanoTime() - started) / 1_000_000, settings.seed(), counts);
+            return counts;
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private long writeFloors(CopyManager copy) throws SQLException {
+        try (CopyWriter out = new CopyWriter(copy, "floors", "id, floor_name")) {
+            for (int f = 0; f < settings.floors(); f++) {
+                out.row(f + 1L, "Hall " + floorPrefix(f));
+            }
+            return out.rows();
+        }
+    }
+
+    private long writeStallTypes(CopyManager copy) throws SQLException {
+        try (CopyWriter out = new CopyWriter(copy, "stall_types", "id, size, price")) {
+            for (int t = 0; t < settings.stallTypes(); t++) {
+                out.row(t + 1L, SIZES[t], PRICES[t]);
+            }
+            return out.rows();
+        }
+    }
+
+    private long writeGenres(CopyManager copy) throws SQLException {
+        try (CopyWriter out = new CopyWriter(copy, "genres", "id, name")) {
+            for (int g = 0; g < GENRES.length; g++) {
+                out.row(g + 1L, GENRES[g]);
+            }
+            return out.rows();
+        }
+    }
+
+    private long writeStalls(CopyManager copy, int[] stallTypes, boolean[] disabled) throws SQLException {
+        Random random = random("stalls");
+        int perFloor = (settings.stalls() + settings.floors() - 1) / settings.floors();
+        try (CopyWriter out = new CopyWriter(copy, "stalls",
+                "id, floor_id, stall_code, stall_type_id, reserved, disabled")) {
+            for (int s = 0; s < settings.stalls(); s++) {
+                int floor = s / perFloor;
+                stallTypes[s] = random.nextInt(settings.stallTypes());
+                disabled[s] = random.nextDouble() < settings.disabledRate();
+                out.row(s + 1L, floor + 1L, floorPrefix(floor) + (s % perFloor + 1), stallTypes[s] + 1L,
+                        false, disabled[s]);
+            }
+            return out.rows();
+        }
+    }
+
+    private long writeUsers(CopyManager copy) throws SQLException {
+        Random random = random("users");
+        String passwordHash = new BCryptPasswordEncoder().encode(settings.userPassword());
+        try (CopyWriter out = new CopyWriter(copy, "users",
+                "id, name, email, contact_number, password, business_name, role, enabled, created_at")) {
+            LocalDateTime opened = settings.start().minusDays(90);
+            out.row(1L, "Fair Admin", "admin@example.com", contactNumber(1), passwordHash, null, "ADMIN", true,
+                    opened);
+            for (int e = 1; e <= settings.employees(); e++) {
+                long id = employeeUserId(e - 1);
+                out.row(id, "Employee " + e, "employee" + e + "@example.com", contactNumber(id), passwordHash,
+                        null, "EMPLOYEE", true, opened.plusHours(random.nextInt(24 * 30)));
+            }
+            for (int v = 1; v <= settings.vendors(); v++) {
+                long id = vendorUserId(v - 1);
+                out.row(id, "Vendor " + v, "vendor" + v + "@example.com", contactNumber(id), passwordHash,
+                        "Books " + v, "VENDOR", random.nextInt(200) != 0,
+                        opened.plusMinutes(random.nextInt(60 * 24 * 80)));
+            }
+            return out.rows();
+        }
+    }
+
+    private long writeUserGenres(CopyManager copy) throws SQLException {
+        Random random = random("user_genres");
+        List<Long> genreIds = new ArrayList<>(GENRES.length);
+        for (int g = 1; g <= GENRES.length; g++) {
+            genreIds.add((long) g);
+        }
+        try (CopyWriter out = new CopyWriter(copy, "user_genres", "user_id, genre_id")) {
+            for (int v = 0; v < settings.vendors(); v++) {
+                long userId = vendorUserId(v);
+                int count = 1 + random.nextInt(3);
+                // Partial Fisher-Yates: the first 'count' ids become a random distinct pick
+                for (int g = 0; g < count; g++) {
+                    Collections.swap(genreIds, g, g + random.nextInt(genreIds.size() - g));
+                    out.row(userId, genreIds.get(g));
+                }
+            }
+            return out.rows();
+        }
+    }
+
+    /**
+     * Reservations are streamed while their links and payments are collected,
+     * then those two tables are copied (one COPY per connection at a time).
+     */
+    private Map<String, Long> writeReservations(CopyManager copy, int[] stallTypes, boolean[] disabled)
+            throws SQLException {
+        Random random = random("reservations");
+        long tokenMask = random.nextLong();
+
+        List<Integer> free = new ArrayList<>();
+        List<Integer> enabled = new ArrayList<>();
+        for (int s = 0; s < stallTypes.length; s++) {
+            if (!disabled[s]) {
+                free.add(s);
+                enabled.add(s);
+            }
+        }
+        Collections.shuffle(free, random);
+
+        int[] held = new int[settings.vendors()];
+        int vendorsWithRoom = settings.vendors();
+        int cursor = random.nextInt(settings.vendors());
+
+        List<Object[]> links = new ArrayList<>();
+        List<Object[]> payments = new ArrayList<>();
+        long reservationId = 0;
+        Map<String, Long> counts = new LinkedHashMap<>();
+
+        try (CopyWriter out = new CopyWriter(copy, "reservations",
+                "id, user_id, reservation_date, qr_code_token, status")) {
+            for (int r = 0; r < settings.reservations(); r++) {
+                int vendor = -1;
+                if (vendorsWithRoom > 0) {
+                    while (held[cursor] >= MAX_STALLS_PER_VENDOR) {
+                        cursor = (cursor + 1) % held.length;
+                    }
+                    vendor = cursor;
+                    cursor = (cursor + 1) % held.length;
+                }
+                int size = vendor < 0 ? 0
+                        : Math.min(Math.min(1 + random.nextInt(3), MAX_STALLS_PER_VENDOR - held[vendor]), free.size());
+
+                long id = ++reservationId;
+                String token = String.format("RES-%08X", ((id * 0x9E3779B1L) ^ tokenMask) & 0xFFFFFFFFL);
+                LocalDateTime bookedAt = settings.start().minusMinutes(random.nextInt(60 * 24 * 60));
+                double amount = 0;
+
+                if (size == 0) {
+                    // Nothing bookable left: an earlier booking that was cancelled outright
+                    if (enabled.isEmpty()) {
+                        break;
+                    }
+                    long userId = vendorUserId(vendor >= 0 ? vendor : random.nextInt(held.length));
+                    int stall = enabled.get(random.nextInt(enabled.size()));
+                    out.row(id, userId, bookedAt, token, "CANCELLED");
+                    links.add(new Object[] { id, stall + 1L, bookedAt.plusHours(1 + random.nextInt(24 * 7)) });
+                    amount = PRICES[stallTypes[stall]];
+                } else {
+                    long userId = vendorUserId(vendor);
+                    boolean cancel = random.nextDouble() < settings.cancelRate();
+                    boolean cancelAll = cancel && size == 1;
+                    out.row(id, userId, bookedAt, token, cancelAll ? "CANCELLED" : "CONFIRMED");
+                    for (int i = 0; i < size; i++) {
+                        int stall = free.remove(free.size() - 1);
+                        amount += PRICES[stallTypes[stall]];
+                        if (cancelAll || (cancel && i == size - 1)) {
+                            links.add(new Object[] { id, stall + 1L,
+                                    bookedAt.plusHours(1 + random.nextInt(24 * 7)) });
+                            release(free, stall, random);
+                        } else {
+                            links.add(new Object[] { id, stall + 1L, null });
+                            if (++held[vendor] == MAX_STALLS_PER_VENDOR) {
+                                vendorsWithRoom--;
+                            }
+                        }
+                    }
+                }
+
+                boolean cash = random.nextInt(3) == 0;
+                payments.add(new Object[] { id, id, amount, cash ? "PENDING" : "PAID",
+                        cash ? "CASH_ON_DATE" : "CARD", cash ? null : bookedAt });
+            }
+            counts.put("reservations", out.rows());
+        }
+
+        try (CopyWriter out = new CopyWriter(copy, "reservation_stalls",
+                "id, reservation_id, stall_id, cancelled_at")) {
+            long linkId = 0;
+            for (Object[] link : links) {
+                out.row(++linkId, link[0], link[1], link[2]);
+            }
+            counts.put("reservation_stalls", out.rows());
+        }
+        try (CopyWriter out = new CopyWriter(copy, "payments",
+                "id, reservation_id, amount, payment_status, payment_method, payment_date")) {
+            long paymentId = 0;
+            for (Object[] payment : payments) {
+                payment[0] = ++paymentId;
+                out.row(payment);
+            }
+            counts.put("payments", out.rows());
+        }
+        return counts;
+    }
+
+    private long writeDuties(CopyManager copy) throws SQLException {
+        if (settings.employees() == 0) {
+            return 0;
+        }
+        Random random = random("duties");
+        try (CopyWriter out = new CopyWriter(copy, "duties",
+                "id, description, start_time, end_time, status, assigned_to_id, created_at, updated_at")) {
+            for (int d = 0; d < settings.duties(); d++) {
+                LocalDateTime start = settings.start().plusDays(random.nextInt(10)).withHour(8 + 4 * random.nextInt(3));
+                int roll = random.nextInt(100);
+                String status = roll < 70 ? "ASSIGNED" : roll < 95 ? "COMPLETED" : "CANCELLED";
+                LocalDateTime created = settings.start().minusDays(1 + random.nextInt(30));
+                out.row(d + 1L, DUTIES[random.nextInt(DUTIES.length)], start, start.plusHours(4), status,
+                        employeeUserId(random.nextInt(settings.employees())), created, created);
+            }
+            return out.rows();
+        }
+    }
+
+    /** Puts a cancelled stall back at a random position, so it is re-booked later on. */
+    private static void release(List<Integer> free, int stall, Random random) {
+        free.add(stall);
+        Collections.swap(free, free.size() - 1, random.nextInt(free.size()));
+    }
+
+    /** Independent stream per table, so changing one table's size does not reshuffle the others. */
+    private Random random(String table) {
+        return new Random(settings.seed() * 31 + table.hashCode());
+    }
+
+    private long employeeUserId(int employee) {
+        return 2L + employee;
+    }
+
+    private long vendorUserId(int vendor) {
+        return 2L + settings.employees() + vendor;
+    }
+
+    private static String contactNumber(long userId) {
+        return String.format("07%08d", userId % 100_000_000);
+    }
+
+    private static String floorPrefix(int floor) {
+        return floor < 26 ? String.valueOf((char) ('A' + floor)) : "F" + (floor + 1);
+    }
+
+    private static boolean hasRows(Statement statement, String table) throws SQLException {
+        try (ResultSet rs = statement.executeQuery("SELECT EXISTS (SELECT 1 FROM " + table + ")")) {
+            return rs.next() && rs.getBoolean(1);
+        }
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            options.put(eq < 0 ? arg.substring(2) : arg.substring(2, eq), eq < 0 ? "true" : arg.substring(eq + 1));
+        }
+        return options;
+    }
+
+    private static int intOption(Map<String, String> options, String name, int defaultValue) {
+        return options.containsKey(name) ? Integer.parseInt(options.get(name)) : defaultValue;
+    }
+}
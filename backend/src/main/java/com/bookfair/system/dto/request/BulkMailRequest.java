@@ -0,0 +1,20 @@
+package com.bookfair.system.dto.request;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class BulkMailRequest {
+  @NotBlank(message = "Kind is required")
+  private String kind; // QR_PASS, ANNOUNCEMENT
+
+  /** Only vendors with a confirmed stall on this floor; omit for all floors. */
+  private Long floorId;
+
+  @Size(max = 200, message = "Subject must be at most 200 characters")
+  private String subject; // ANNOUNCEMENT only
+
+  @Size(max = 10000, message = "Message must be at most 10000 characters")
+  private String message; // ANNOUNCEMENT only
+}
@@ -0,0 +1,29 @@
+package com.bookfair.system.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/** Progress of a bulk-mail job; counts come from the job's mail outbox rows. */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkMailJobResponse {
+    private Long id;
+    private String kind;
+    private Long floorId;
+    private String subject;
+    private String status;
+    private int queued;
+    private long sent;
+    private long pending;
+    private long failed;
+    private long cancelled;
+    private String createdBy;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -15,6 +15,7 @@ import lombok.NoArgsConstructor;
 public class ReservationResponse {
     private String reservationCode;
     private String qrCodeImage;
+    private String qrCodeUrl;
     private String message;
     private Long id;
     private String stallCode;
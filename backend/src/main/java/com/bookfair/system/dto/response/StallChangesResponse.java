@@ -0,0 +1,23 @@
+package com.bookfair.system.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Returned by GET /api/stalls/changes?since={version}.
+ * When {@code full} is true, {@code stalls} is the complete list and the
+ * client should replace its copy; otherwise it only holds stalls changed
+ * after {@code since}, and {@code removed} lists deleted stall ids.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StallChangesResponse {
+    private long version;
+    private boolean full;
+    private List<StallResponse> stalls;
+    private List<Long> removed;
+}
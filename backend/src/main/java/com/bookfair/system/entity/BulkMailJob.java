@@ -0,0 +1,76 @@
+package com.bookfair.system.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Admin-triggered mass mailing. Recipients are queued into the mail outbox in
+ * keyset-ordered chunks; {@code cursorId} records how far queueing got so an
+ * interrupted job resumes where it stopped.
+ */
+@Entity
+@Table(name = "bulk_mail_jobs")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkMailJob {
+
+    public static final String KIND_QR_PASS = "QR_PASS";
+    public static final String KIND_ANNOUNCEMENT = "ANNOUNCEMENT";
+
+    public static final String STATUS_QUEUEING = "QUEUEING";
+    public static final String STATUS_QUEUED = "QUEUED";
+    public static final String STATUS_CANCELLED = "CANCELLED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 40)
+    private String kind; // QR_PASS, ANNOUNCEMENT
+
+    /** Only vendors with a confirmed stall on this floor; null = all floors. */
+    @Column(name = "floor_id")
+    private Long floorId;
+
+    @Column(length = 200)
+    private String subject;
+
+    @Column(columnDefinition = "TEXT")
+    private String message;
+
+    @Column(nullable = false, length = 20)
+    private String status; // QUEUEING, QUEUED, CANCELLED
+
+    /** Last reservation id (QR_PASS) or user id (ANNOUNCEMENT) queued. */
+    @Column(name = "cursor_id", nullable = false)
+    @Builder.Default
+    private long cursorId = 0;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private int queued = 0;
+
+    @Column(name = "created_by", length = 100)
+    private String createdBy;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        this.createdAt = LocalDateTime.now();
+        this.updatedAt = this.createdAt;
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        this.updatedAt = LocalDateTime.now();
+    }
+}
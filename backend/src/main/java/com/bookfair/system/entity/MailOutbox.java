@@ -0,0 +1,102 @@
+package com.bookfair.system.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * One queued e-mail. Rows are inserted in the same transaction as the change
+ * that triggers the mail and drained by MailOutboxDispatcher.
+ */
+@Entity
+@Table(name = "mail_outbox")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MailOutbox {
+
+    public static final String KIND_RESERVATION_CONFIRMED = "RESERVATION_CONFIRMED";
+    public static final String KIND_QR_PASS = "QR_PASS";
+    public static final String KIND_ANNOUNCEMENT = "ANNOUNCEMENT";
+
+    /** Claimed first (lower is sooner); keeps confirmations ahead of bulk sends. */
+    public static final int PRIORITY_TRANSACTIONAL = 0;
+    public static final int PRIORITY_BULK = 10;
+
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_SENT = "SENT";
+    public static final String STATUS_DEAD = "DEAD";
+    public static final String STATUS_CANCELLED = "CANCELLED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 40)
+    private String kind;
+
+    @Column(nullable = false, length = 100)
+    private String recipient;
+
+    @Column(name = "recipient_name", length = 100)
+    private String recipientName;
+
+    @Column(name = "contact_number", length = 20)
+    private String contactNumber;
+
+    @Column(name = "reservation_code")
+    private String reservationCode;
+
+    @Column(name = "payment_status", length = 20)
+    private String paymentStatus;
+
+    @Column(name = "stall_details", columnDefinition = "TEXT")
+    private String stallDetails;
+
+    /** Announcement subject and text; unused by reservation mails. */
+    @Column(length = 200)
+    private String subject;
+
+    @Column(columnDefinition = "TEXT")
+    private String body;
+
+    /** Owning bulk-mail job, or null for transactional mail. */
+    @Column(name = "job_id")
+    private Long jobId;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private int priority = PRIORITY_TRANSACTIONAL;
+
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private String status = STATUS_PENDING; // PENDING, SENT, DEAD, CANCELLED
+
+    @Column(nullable = false)
+    @Builder.Default
+    private int attempts = 0;
+
+    /** When the row is next due; while a dispatcher holds it, the end of its lease. */
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+
+    @PrePersist
+    protected void onCreate() {
+        LocalDateTime now = LocalDateTime.now();
+        this.createdAt = now;
+        if (this.nextAttemptAt == null) {
+            this.nextAttemptAt = now;
+        }
+    }
+}
@@ -35,4 +35,13 @@ public class Reservation {
     @Column(nullable = false)
     @Builder.Default
     private String status = "PENDING";
+
+    /**
+     * Set only on legacy split-off cancellations ("&lt;token&gt;-C-&lt;stallId&gt;"),
+     * pointing at the reservation they were cut from. Listings skip these rows.
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "parent_reservation_id")
+    @ToString.Exclude
+    private Reservation parentReservation;
 }
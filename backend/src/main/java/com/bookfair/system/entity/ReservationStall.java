@@ -3,6 +3,8 @@ package com.bookfair.system.entity;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.time.LocalDateTime;
+
 @Entity
 @Table(name = "reservation_stalls", uniqueConstraints = {
     @UniqueConstraint(columnNames = {"reservation_id", "stall_id"})
@@ -25,4 +27,8 @@ public class ReservationStall {
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "stall_id", nullable = false)
     private Stall stall;
+
+    /** Set when the vendor cancels this stall; the link stays on its reservation as history. */
+    @Column(name = "cancelled_at")
+    private LocalDateTime cancelledAt;
 }
@@ -2,6 +2,8 @@ package com.bookfair.system.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
 
 @Entity
 @Table(name = "stalls", uniqueConstraints = {
@@ -17,7 +19,9 @@ public class Stall {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    // Single-stall loads resolve it by id from the second-level cache; list queries fetch-join it
     @ManyToOne(fetch = FetchType.EAGER)
+    @Fetch(FetchMode.SELECT)
     @JoinColumn(name = "floor_id", nullable = false)
     private Floor floor;
 
@@ -25,6 +29,7 @@ public class Stall {
     private String stallCode;
 
     @ManyToOne(fetch = FetchType.EAGER)
+    @Fetch(FetchMode.SELECT)
     @JoinColumn(name = "stall_type_id", nullable = false)
     private StallType stallType;
 
@@ -0,0 +1,15 @@
+package com.bookfair.system.event;
+
+/**
+ * Published inside the booking transaction. The mail is queued in the same
+ * transaction and sent after it commits.
+ * Carries plain values so listeners never touch lazy entities off-transaction.
+ */
+public record ReservationConfirmedEvent(
+        String reservationCode,
+        String email,
+        String name,
+        String contactNumber,
+        String paymentStatus,
+        String stallDetails) {
+}
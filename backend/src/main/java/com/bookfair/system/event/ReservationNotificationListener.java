@@ -0,0 +1,45 @@
+package com.bookfair.system.event;
+
+import com.bookfair.system.entity.MailOutbox;
+import com.bookfair.system.repository.MailOutboxRepository;
+import com.bookfair.system.service.MailOutboxDispatcher;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Queues the confirmation mail in the mail outbox inside the booking
+ * transaction, so it commits or rolls back with the reservation, and wakes the
+ * dispatcher once the transaction has committed. QR rendering and SMTP work
+ * happen on the dispatcher thread, never on the request thread.
+ */
+@Component
+@RequiredArgsConstructor
+public class ReservationNotificationListener {
+
+    private final MailOutboxRepository mailOutboxRepository;
+    private final MailOutboxDispatcher mailOutboxDispatcher;
+
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueConfirmation(ReservationConfirmedEvent event) {
+        mailOutboxRepository.save(MailOutbox.builder()
+                .kind(MailOutbox.KIND_RESERVATION_CONFIRMED)
+                .recipient(event.email())
+                .recipientName(event.name())
+                .contactNumber(event.contactNumber())
+                .reservationCode(event.reservationCode())
+                .paymentStatus(event.paymentStatus())
+                .stallDetails(event.stallDetails())
+                .build());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onReservationConfirmed(ReservationConfirmedEvent event) {
+        mailOutboxDispatcher.requestDrain();
+    }
+}
@@ -0,0 +1,10 @@
+package com.bookfair.system.event;
+
+import java.util.Collection;
+
+/**
+ * Published inside any transaction that changes stall availability
+ * (reserve, cancel, enable/disable, admin CRUD). Listeners react after commit.
+ */
+public record StallsChangedEvent(Collection<Long> stallIds) {
+}
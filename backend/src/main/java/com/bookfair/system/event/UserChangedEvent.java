@@ -0,0 +1,10 @@
+package com.bookfair.system.event;
+
+import java.util.Collection;
+
+/**
+ * Published when a user's identity, role, status or credentials change, so
+ * cached authentication principals for these e-mails can be dropped after commit.
+ */
+public record UserChangedEvent(Collection<String> emails) {
+}
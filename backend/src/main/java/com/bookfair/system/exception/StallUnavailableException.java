@@ -0,0 +1,22 @@
+package com.bookfair.system.exception;
+
+import java.util.List;
+
+/**
+ * Thrown when one or more requested stalls were already reserved, disabled or
+ * being claimed by a concurrent booking at the time of the request.
+ */
+public class StallUnavailableException extends RuntimeException {
+
+    private final List<Long> stallIds;
+
+    public StallUnavailableException(List<Long> stallIds) {
+        super("One or more selected stalls are no longer available. Please pick different stalls.");
+        this.stallIds = stallIds;
+    }
+
+    /** The requested stalls that could not be claimed. */
+    public List<Long> getStallIds() {
+        return stallIds;
+    }
+}
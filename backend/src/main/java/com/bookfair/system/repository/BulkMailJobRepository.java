@@ -0,0 +1,25 @@
+package com.bookfair.system.repository;
+
+import com.bookfair.system.entity.BulkMailJob;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BulkMailJobRepository extends JpaRepository<BulkMailJob, Long> {
+
+    /** Serialises chunk queueing against cancellation. */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT j FROM BulkMailJob j WHERE j.id = :id")
+    Optional<BulkMailJob> findByIdForUpdate(@Param("id") Long id);
+
+    List<BulkMailJob> findByStatus(String status);
+
+    List<BulkMailJob> findAllByOrderByIdDesc();
+}
@@ -0,0 +1,55 @@
+package com.bookfair.system.repository;
+
+import com.bookfair.system.entity.MailOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface MailOutboxRepository extends JpaRepository<MailOutbox, Long> {
+
+    /**
+     * Locks up to {@code limit} due rows, transactional mail first, then oldest first. Rows already locked by
+     * another dispatcher are skipped, so several instances can drain in parallel.
+     */
+    @Query(value = "SELECT * FROM mail_outbox WHERE status = 'PENDING' AND next_attempt_at <= :now " +
+            "ORDER BY priority, next_attempt_at, id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<MailOutbox> lockDue(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    /**
+     * Records delivery of rows still held under the lease ending at {@code leasedUntil}. Rows cancelled or
+     * re-leased by another dispatcher in the meantime are left alone.
+     */
+    @Modifying
+    @Query("UPDATE MailOutbox m SET m.status = 'SENT', m.sentAt = :sentAt, m.lastError = null " +
+            "WHERE m.id IN :ids AND m.status = 'PENDING' AND m.nextAttemptAt = :leasedUntil")
+    int markSent(@Param("ids") Collection<Long> ids, @Param("leasedUntil") LocalDateTime leasedUntil,
+            @Param("sentAt") LocalDateTime sentAt);
+
+    /** Records a failed attempt under the same lease condition as {@link #markSent}. */
+    @Modifying
+    @Query("UPDATE MailOutbox m SET m.status = :status, m.nextAttemptAt = :nextAttemptAt, m.lastError = :error " +
+            "WHERE m.id = :id AND m.status = 'PENDING' AND m.nextAttemptAt = :leasedUntil")
+    int markFailed(@Param("id") Long id, @Param("leasedUntil") LocalDateTime leasedUntil,
+            @Param("status") String status, @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+            @Param("error") String error);
+
+    /** Withdraws a bulk-mail job's rows that have not been sent yet. */
+    @Modifying
+    @Query("UPDATE MailOutbox m SET m.status = 'CANCELLED' WHERE m.jobId = :jobId AND m.status = 'PENDING'")
+    int cancelPendingForJob(@Param("jobId") Long jobId);
+
+    /** Unsent row counts per status as [status, count] (PENDING and DEAD). */
+    @Query("SELECT m.status, COUNT(m) FROM MailOutbox m WHERE m.status IN ('PENDING', 'DEAD') GROUP BY m.status")
+    List<Object[]> countByStatus();
+
+    /** Row counts per status for one bulk-mail job as [status, count]. */
+    @Query("SELECT m.status, COUNT(m) FROM MailOutbox m WHERE m.jobId = :jobId GROUP BY m.status")
+    List<Object[]> countByStatusForJob(@Param("jobId") Long jobId);
+}
@@ -1,21 +1,42 @@
 package com.bookfair.system.repository;
 
 import com.bookfair.system.entity.Reservation;
+import com.bookfair.system.entity.ReservationStall;
+import com.bookfair.system.repository.projection.MailRecipientRow;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ReservationRepository extends JpaRepository<Reservation, Long> {
+public interface ReservationRepository extends JpaRepository<Reservation, Long>,
+        JpaSpecificationExecutor<Reservation> {
+
+    /** Confirmed reservations, optionally limited to those still holding a stall on a floor. */
+    String CONFIRMED_ON_FLOOR_FILTER = "r.status = 'CONFIRMED' " +
+            "AND (:floorId IS NULL OR EXISTS (SELECT 1 FROM ReservationStall rs " +
+            "WHERE rs.reservation = r AND rs.cancelledAt IS NULL AND rs.stall.floor.id = :floorId))";
 
     List<Reservation> findByUserId(Long userId);
 
     long countByUserId(Long userId);
 
+    boolean existsByQrCodeToken(String qrCodeToken);
+
     /**
      * Eagerly fetches User via JOIN FETCH in a single SQL query.
      * Avoids LazyInitializationException when mapping to DTO outside a transaction.
@@ -23,8 +44,69 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
     @Query("SELECT r FROM Reservation r JOIN FETCH r.user")
     List<Reservation> findAllWithUser();
 
-    @Query("SELECT r FROM Reservation r JOIN FETCH r.user WHERE r.qrCodeToken NOT LIKE '%-C-%' ORDER BY r.reservationDate DESC")
-    List<Reservation> findAllBaseReservationsWithUser();
+    /**
+     * Filtered, paged admin listing of base reservations with their User,
+     * newest first. Only the filters that are set (non-null) become
+     * predicates, so Postgres never sees an untyped null parameter. The floor
+     * filter matches reservations holding at least one stall on that floor.
+     */
+    default Page<Reservation> searchBaseReservationsWithUser(String status, Long floorId,
+            LocalDateTime from, LocalDateTime to, Pageable pageable) {
+        Specification<Reservation> filter = (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(cb.isNull(root.get("parentReservation")));
+            if (status != null) {
+                predicates.add(cb.equal(root.get("status"), status));
+            }
+            if (from != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("reservationDate"), from));
+            }
+            if (to != null) {
+                predicates.add(cb.lessThan(root.get("reservationDate"), to));
+            }
+            if (floorId != null) {
+                Subquery<Long> onFloor = query.subquery(Long.class);
+                Root<ReservationStall> rs = onFloor.from(ReservationStall.class);
+                onFloor.select(rs.get("id")).where(
+                        cb.equal(rs.get("reservation"), root),
+                        cb.equal(rs.get("stall").get("floor").get("id"), floorId));
+                predicates.add(cb.exists(onFloor));
+            }
+            // Fetch the User for the page query only; a fetch in the count query is invalid
+            if (!Long.class.equals(query.getResultType())) {
+                root.fetch("user");
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+        Sort newestFirst = Sort.by(Sort.Direction.DESC, "reservationDate");
+        return findAll(filter, pageable.isPaged()
+                ? PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), newestFirst)
+                : Pageable.unpaged(newestFirst));
+    }
+
+    /**
+     * Next keyset chunk of QR pass recipients: one row per confirmed base
+     * reservation with id greater than {@code afterId}, in id order.
+     */
+    @Query("SELECT new com.bookfair.system.repository.projection.MailRecipientRow(" +
+            "r.id, u.email, u.name, u.contactNumber, r.qrCodeToken, p.paymentStatus) " +
+            "FROM Reservation r JOIN r.user u LEFT JOIN Payment p ON p.reservation.id = r.id " +
+            "WHERE r.id > :afterId AND " + CONFIRMED_ON_FLOOR_FILTER + " ORDER BY r.id")
+    List<MailRecipientRow> findQrPassRecipients(@Param("afterId") long afterId,
+            @Param("floorId") Long floorId,
+            Pageable pageable);
+
+    /**
+     * Next keyset chunk of announcement recipients: each vendor with a confirmed
+     * reservation (on the floor, if given) once, by user id.
+     */
+    @Query("SELECT new com.bookfair.system.repository.projection.MailRecipientRow(" +
+            "u.id, u.email, u.name, u.contactNumber, CAST(NULL AS String), CAST(NULL AS String)) " +
+            "FROM User u WHERE u.id > :afterId AND EXISTS (SELECT 1 FROM Reservation r " +
+            "WHERE r.user = u AND " + CONFIRMED_ON_FLOOR_FILTER + ") ORDER BY u.id")
+    List<MailRecipientRow> findAnnouncementRecipients(@Param("afterId") long afterId,
+            @Param("floorId") Long floorId,
+            Pageable pageable);
 
     /**
      * Eagerly fetches User for a single Reservation by id.
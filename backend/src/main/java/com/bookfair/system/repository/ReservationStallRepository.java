@@ -2,9 +2,12 @@ package com.bookfair.system.repository;
 
 import com.bookfair.system.entity.ReservationStall;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.Optional;
 import java.util.List;
 
@@ -12,43 +15,50 @@ import java.util.List;
 public interface ReservationStallRepository extends JpaRepository<ReservationStall, Long> {
 
        @Query("SELECT COUNT(rs) > 0 FROM ReservationStall rs " +
-                     "WHERE rs.stall.id = :stallId AND rs.reservation.status = 'CONFIRMED'")
+                     "WHERE rs.stall.id = :stallId AND rs.cancelledAt IS NULL AND rs.reservation.status = 'CONFIRMED'")
        boolean isStallReserved(@Param("stallId") Long stallId);
 
        @Query("SELECT COUNT(rs) FROM ReservationStall rs " +
-                     "WHERE rs.reservation.user.id = :userId AND rs.reservation.status != 'CANCELLED'")
+                     "WHERE rs.reservation.user.id = :userId AND rs.cancelledAt IS NULL " +
+                     "AND rs.reservation.status != 'CANCELLED'")
        long countStallsByUserId(@Param("userId") Long userId);
 
        Optional<ReservationStall> findByStallId(Long stallId);
 
-       Optional<ReservationStall> findByStall_IdAndReservation_StatusIn(
-                     Long stallId,
-                     List<String> statuses);
-
-       @Query("SELECT rs FROM ReservationStall rs " +
-                     "JOIN FETCH rs.reservation r " +
-                     "JOIN FETCH r.user u " +
-                     "WHERE rs.stall.id = :stallId AND r.status = 'CONFIRMED'")
-       Optional<ReservationStall> findActiveByStallId(@Param("stallId") Long stallId);
-
        @Query("SELECT rs FROM ReservationStall rs " +
                      "JOIN FETCH rs.reservation r " +
                      "JOIN FETCH rs.stall s " +
-                     "JOIN FETCH s.floor " +
-                     "WHERE r.user.id = :userId AND r.status = 'CONFIRMED' AND r.qrCodeToken NOT LIKE '%-C-%'")
+                     "WHERE r.user.id = :userId AND r.status = 'CONFIRMED' AND rs.cancelledAt IS NULL")
        List<ReservationStall> findAllByReservationUserId(@Param("userId") Long userId);
 
        @Query("SELECT rs FROM ReservationStall rs " +
-                     "WHERE rs.reservation.user.id = :userId AND rs.stall.id = :stallId AND rs.reservation.status != 'CANCELLED'")
+                     "WHERE rs.reservation.user.id = :userId AND rs.stall.id = :stallId AND rs.cancelledAt IS NULL " +
+                     "AND rs.reservation.status != 'CANCELLED'")
        Optional<ReservationStall> findActiveByUserIdAndStallId(
                      @Param("userId") Long userId,
                      @Param("stallId") Long stallId);
 
-       @Query("SELECT COUNT(rs) FROM ReservationStall rs WHERE rs.reservation.id = :reservationId")
-       long countByReservationId(@Param("reservationId") Long reservationId);
+       @Query("SELECT COUNT(rs) FROM ReservationStall rs " +
+                     "WHERE rs.reservation.id = :reservationId AND rs.cancelledAt IS NULL")
+       long countActiveByReservationId(@Param("reservationId") Long reservationId);
+
+       /** Marks every still-active link of a reservation as cancelled. */
+       @Modifying
+       @Query("UPDATE ReservationStall rs SET rs.cancelledAt = :cancelledAt " +
+                     "WHERE rs.reservation.id = :reservationId AND rs.cancelledAt IS NULL")
+       int cancelActiveByReservationId(@Param("reservationId") Long reservationId,
+                     @Param("cancelledAt") LocalDateTime cancelledAt);
 
-       @Query("SELECT rs FROM ReservationStall rs JOIN FETCH rs.stall JOIN FETCH rs.reservation")
+       @Query("SELECT rs FROM ReservationStall rs JOIN FETCH rs.stall s " +
+                     "JOIN FETCH rs.reservation")
        List<ReservationStall> findAllWithStallsAndReservations();
 
-       List<ReservationStall> findAllByReservationId(Long reservationId);
+       /** All stall links of the given reservations, cancelled ones included. */
+       @Query("SELECT rs FROM ReservationStall rs JOIN FETCH rs.stall WHERE rs.reservation.id IN :reservationIds")
+       List<ReservationStall> findAllWithStallsByReservationIdIn(@Param("reservationIds") Collection<Long> reservationIds);
+
+       @Query("SELECT rs FROM ReservationStall rs JOIN FETCH rs.stall " +
+                     "WHERE rs.reservation.id IN :reservationIds AND rs.cancelledAt IS NULL")
+       List<ReservationStall> findActiveWithStallsByReservationIdIn(
+                     @Param("reservationIds") Collection<Long> reservationIds);
 }
@@ -1,13 +1,20 @@
 package com.bookfair.system.repository;
 
 import com.bookfair.system.entity.Stall;
+import com.bookfair.system.repository.projection.EmployeeStallRow;
+import com.bookfair.system.repository.projection.StallAvailabilityRow;
 import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,9 +25,67 @@ public interface StallRepository extends JpaRepository<Stall, Long> {
     @Query("SELECT s FROM Stall s WHERE s.id = :id")
     Optional<Stall> findByIdWithLock(@Param("id") Long id);
 
+    // Lists fetch-join floor and type: one statement even when the second-level cache is cold
     @Query("SELECT s FROM Stall s JOIN FETCH s.floor JOIN FETCH s.stallType")
     List<Stall> findAllWithFloors();
 
     @Query("SELECT s FROM Stall s JOIN FETCH s.floor JOIN FETCH s.stallType WHERE s.floor.id = :floorId")
     List<Stall> findByFloorId(@Param("floorId") Long floorId);
+
+    @Query("SELECT s FROM Stall s JOIN FETCH s.floor JOIN FETCH s.stallType WHERE s.id IN :ids")
+    List<Stall> findAllWithFloorsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Availability view in a single statement, one row per stall. Links are
+     * only joined for reserved stalls and skip cancelled ones, so at most one
+     * link matches.
+     */
+    @Query("SELECT new com.bookfair.system.repository.projection.StallAvailabilityRow(" +
+            "s.id, s.stallCode, f.id, f.floorName, t.size, t.price, s.reserved, s.disabled, " +
+            "r.id, r.reservationDate, r.status, u.id, u.name, u.email, u.contactNumber, u.businessName) " +
+            "FROM Stall s JOIN s.floor f JOIN s.stallType t " +
+            "LEFT JOIN ReservationStall rs ON rs.stall.id = s.id AND s.reserved = true AND rs.cancelledAt IS NULL " +
+            "LEFT JOIN Reservation r ON r.id = rs.reservation.id AND r.status = 'CONFIRMED' " +
+            "LEFT JOIN r.user u " +
+            "ORDER BY s.id")
+    List<StallAvailabilityRow> findAvailabilityRows();
+
+    /**
+     * Employee panel read model in a single statement, one row per stall,
+     * optionally narrowed to one floor or one stall (null = no filter).
+     */
+    @Query("SELECT new com.bookfair.system.repository.projection.EmployeeStallRow(" +
+            "s.id, s.stallCode, t.size, t.price, f.floorName, s.reserved, s.disabled, " +
+            "r.id, u.name, u.email, u.contactNumber, u.businessName, " +
+            "p.paymentStatus, p.amount, p.paymentDate, p.paymentMethod) " +
+            "FROM Stall s JOIN s.floor f JOIN s.stallType t " +
+            "LEFT JOIN ReservationStall rs ON rs.stall.id = s.id AND s.reserved = true AND rs.cancelledAt IS NULL " +
+            "LEFT JOIN Reservation r ON r.id = rs.reservation.id AND r.status IN ('CONFIRMED', 'PENDING') " +
+            "LEFT JOIN r.user u " +
+            "LEFT JOIN Payment p ON p.reservation.id = r.id " +
+            "WHERE (:floorId IS NULL OR f.id = :floorId) AND (:stallId IS NULL OR s.id = :stallId) " +
+            "ORDER BY s.id")
+    List<EmployeeStallRow> findEmployeeStallRows(@Param("floorId") Long floorId, @Param("stallId") Long stallId);
+
+    /**
+     * Atomically flips every free, enabled stall in {@code ids} to reserved and
+     * returns the ids that were claimed. Rows are locked in id order and rows
+     * already locked by a concurrent booking are skipped, so multi-stall claims
+     * never wait on each other or deadlock. Any id missing from the result was
+     * taken.
+     */
+    // Run as a result-set query (UPDATE ... RETURNING). The native space makes
+    // Hibernate flush pending stall changes first, as flushAutomatically did.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "stalls"))
+    @Query(value = "UPDATE stalls SET reserved = true WHERE id IN (" +
+            "SELECT id FROM stalls WHERE id IN (:ids) AND reserved = false AND disabled = false " +
+            "ORDER BY id FOR UPDATE SKIP LOCKED) RETURNING id", nativeQuery = true)
+    List<Long> claimAvailable(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Releases a reserved stall. Returns 0 when the stall was already free.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Stall s SET s.reserved = false WHERE s.id = :id AND s.reserved = true")
+    int release(@Param("id") Long id);
 }
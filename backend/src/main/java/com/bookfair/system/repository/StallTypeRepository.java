@@ -0,0 +1,9 @@
+package com.bookfair.system.repository;
+
+import com.bookfair.system.entity.StallType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface StallTypeRepository extends JpaRepository<StallType, Long> {
+}
@@ -0,0 +1,26 @@
+package com.bookfair.system.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Flat row for the employee stall panel: stall, floor and type, plus the
+ * active (CONFIRMED/PENDING) reservation, vendor and payment when reserved.
+ */
+public record EmployeeStallRow(
+        Long stallId,
+        String stallCode,
+        String size,
+        Double price,
+        String floorName,
+        boolean reserved,
+        boolean disabled,
+        Long reservationId,
+        String vendorName,
+        String vendorEmail,
+        String vendorContact,
+        String businessName,
+        String paymentStatus,
+        Double paymentAmount,
+        LocalDateTime paymentDate,
+        String paymentMethod) {
+}
@@ -0,0 +1,15 @@
+package com.bookfair.system.repository.projection;
+
+/**
+ * One bulk-mail recipient. {@code cursorId} is the keyset position (reservation
+ * id for QR passes, user id for announcements); reservation fields are null
+ * for announcements.
+ */
+public record MailRecipientRow(
+        Long cursorId,
+        String email,
+        String name,
+        String contactNumber,
+        String reservationCode,
+        String paymentStatus) {
+}
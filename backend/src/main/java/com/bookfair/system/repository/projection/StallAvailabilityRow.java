@@ -0,0 +1,27 @@
+package com.bookfair.system.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Flat row for the admin availability view: a stall with its floor and type,
+ * plus the CONFIRMED reservation and vendor when the stall is reserved
+ * (reservation/vendor columns are null otherwise).
+ */
+public record StallAvailabilityRow(
+        Long stallId,
+        String stallCode,
+        Long floorId,
+        String floorName,
+        String size,
+        Double price,
+        boolean reserved,
+        boolean disabled,
+        Long reservationId,
+        LocalDateTime reservationDate,
+        String reservationStatus,
+        Long vendorId,
+        String vendorName,
+        String vendorEmail,
+        String vendorContact,
+        String vendorBusiness) {
+}
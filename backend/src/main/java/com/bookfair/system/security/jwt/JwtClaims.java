@@ -0,0 +1,9 @@
+package com.bookfair.system.security.jwt;
+
+import java.util.Date;
+
+/**
+ * Claims of a token that has already been signature-checked and is not expired.
+ */
+public record JwtClaims(String subject, Date issuedAt, Date expiration) {
+}
@@ -4,6 +4,8 @@ import com.bookfair.system.security.services.UserDetailsImpl;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -12,16 +14,37 @@ import org.springframework.stereotype.Component;
 
 import java.security.Key;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtUtils {
     private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
 
-    @Value("${app.jwtSecret}")
-    private String jwtSecret;
+    private final int jwtExpirationMs;
 
-    @Value("${app.jwtExpirationMs}")
-    private int jwtExpirationMs;
+    // The HMAC key and the parser are immutable and thread-safe, so they are built once
+    private final Key signingKey;
+    private final JwtParser parser;
+
+    private final Timer verifyValid;
+    private final Timer verifyInvalid;
+
+    public JwtUtils(@Value("${app.jwtSecret}") String jwtSecret,
+            @Value("${app.jwtExpirationMs}") int jwtExpirationMs,
+            MeterRegistry meterRegistry) {
+        this.jwtExpirationMs = jwtExpirationMs;
+        this.signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        this.parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        this.verifyValid = verifyTimer(meterRegistry, "valid");
+        this.verifyInvalid = verifyTimer(meterRegistry, "invalid");
+    }
+
+    private static Timer verifyTimer(MeterRegistry registry, String result) {
+        return Timer.builder("auth.jwt.verify")
+                .description("JWT signature and expiry verification")
+                .tag("result", result)
+                .register(registry);
+    }
 
     public String generateJwtToken(Authentication authentication) {
         UserDetailsImpl userPrincipal = (UserDetailsImpl) authentication.getPrincipal();
@@ -31,23 +54,25 @@ public class JwtUtils {
                 .setSubject((userPrincipal.getUsername()))
                 .setIssuedAt(new Date())
                 .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
-                .signWith(key(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    private Key key() {
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
-    }
-
-    public String getUserNameFromJwtToken(String token) {
-        return Jwts.parserBuilder().setSigningKey(key()).build()
-                .parseClaimsJws(token).getBody().getSubject();
+    /**
+     * Verifies the signature and expiry of {@code token} exactly once and
+     * returns its claims, or null if the token is not valid.
+     */
+    public JwtClaims verify(String token) {
+        long start = System.nanoTime();
+        JwtClaims result = parse(token);
+        (result != null ? verifyValid : verifyInvalid).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return result;
     }
 
-    public boolean validateJwtToken(String authToken) {
+    private JwtClaims parse(String token) {
         try {
-            Jwts.parserBuilder().setSigningKey(key()).build().parseClaimsJws(authToken);
-            return true;
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            return new JwtClaims(claims.getSubject(), claims.getIssuedAt(), claims.getExpiration());
         } catch (MalformedJwtException e) {
             logger.error("Invalid JWT token: {}", e.getMessage());
         } catch (ExpiredJwtException e) {
@@ -56,7 +81,9 @@ public class JwtUtils {
             logger.error("JWT token is unsupported: {}", e.getMessage());
         } catch (IllegalArgumentException e) {
             logger.error("JWT claims string is empty: {}", e.getMessage());
+        } catch (JwtException e) {
+            logger.error("JWT signature is invalid: {}", e.getMessage());
         }
-        return false;
+        return null;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,55 @@
+package com.bookfair.system.security.services;
+
+import com.bookfair.system.event.UserChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+
+/**
+ * Short-lived cache of authenticated principals keyed by e-mail, so
+ * AuthTokenFilter does not need a users-table lookup on every request.
+ *
+ * Entries hold no password hash. They are evicted once a change to the user
+ * commits (see UserService), and expire after a TTL as a safety net.
+ */
+@Component
+public class PrincipalCache {
+
+    private final UserDetailsServiceImpl userDetailsService;
+    private final Cache<String, UserDetailsImpl> principals;
+
+    public PrincipalCache(UserDetailsServiceImpl userDetailsService,
+            MeterRegistry meterRegistry,
+            @Value("${app.auth.principal-cache.ttl-seconds:300}") long ttlSeconds,
+            @Value("${app.auth.principal-cache.max-size:10000}") long maxSize) {
+        this.userDetailsService = userDetailsService;
+        this.principals = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, principals, "auth.principals");
+    }
+
+    /** Returns the cached principal, loading it from the database on a miss. */
+    public UserDetailsImpl get(String email) {
+        return principals.get(email, this::load);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        principals.invalidateAll(event.emails());
+    }
+
+    private UserDetailsImpl load(String email) {
+        UserDetailsImpl user = (UserDetailsImpl) userDetailsService.loadUserByUsername(email);
+        return new UserDetailsImpl(user.getId(), user.getEmail(), null, user.getAuthorities());
+    }
+}
@@ -0,0 +1,260 @@
+package com.bookfair.system.service;
+
+import com.bookfair.system.dto.request.BulkMailRequest;
+import com.bookfair.system.dto.response.BulkMailJobResponse;
+import com.bookfair.system.entity.BulkMailJob;
+import com.bookfair.system.entity.MailOutbox;
+import com.bookfair.system.entity.ReservationStall;
+import com.bookfair.system.entity.Stall;
+import com.bookfair.system.repository.BulkMailJobRepository;
+import com.bookfair.system.repository.MailOutboxRepository;
+import com.bookfair.system.repository.ReservationRepository;
+import com.bookfair.system.repository.ReservationStallRepository;
+import com.bookfair.system.repository.projection.MailRecipientRow;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * Admin bulk mailing: re-issuing QR passes and floor announcements.
+ *
+ * A job streams its recipients from ReservationRepository in keyset-ordered
+ * chunks and queues one outbox row per recipient, committing the rows and the
+ * job cursor together. Delivery (parallel QR rendering, pooled and
+ * rate-limited SMTP, retries) is left to MailOutboxDispatcher, so request
+ * threads only create the job. Jobs interrupted by a restart continue from
+ * their cursor on startup; already-queued mail is never queued twice.
+ */
+@Slf4j
+@Service
+public class BulkMailService {
+
+    private final BulkMailJobRepository bulkMailJobRepository;
+    private final ReservationRepository reservationRepository;
+    private final ReservationStallRepository reservationStallRepository;
+    private final MailOutboxRepository mailOutboxRepository;
+    private final MailOutboxDispatcher mailOutboxDispatcher;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    private final ExecutorService queueing;
+    private final Set<Long> activeJobs = ConcurrentHashMap.newKeySet();
+
+    public BulkMailService(BulkMailJobRepository bulkMailJobRepository,
+            ReservationRepository reservationRepository,
+            ReservationStallRepository reservationStallRepository,
+            MailOutboxRepository mailOutboxRepository,
+            MailOutboxDispatcher mailOutboxDispatcher,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.mail.bulk.chunk-size:200}") int chunkSize) {
+        this.bulkMailJobRepository = bulkMailJobRepository;
+        this.reservationRepository = reservationRepository;
+        this.reservationStallRepository = reservationStallRepository;
+        this.mailOutboxRepository = mailOutboxRepository;
+        this.mailOutboxDispatcher = mailOutboxDispatcher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.queueing = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "bulk-mail");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public BulkMailJobResponse start(BulkMailRequest request, String createdBy) {
+        String kind = request.getKind().toUpperCase();
+        if (!BulkMailJob.KIND_QR_PASS.equals(kind) && !BulkMailJob.KIND_ANNOUNCEMENT.equals(kind))
+            throw new IllegalArgumentException("Unknown bulk mail kind: " + request.getKind());
+        if (BulkMailJob.KIND_ANNOUNCEMENT.equals(kind)
+                && (isBlank(request.getSubject()) || isBlank(request.getMessage())))
+            throw new IllegalArgumentException("Announcements need a subject and a message");
+
+        BulkMailJob job = bulkMailJobRepository.save(BulkMailJob.builder()
+                .kind(kind)
+                .floorId(request.getFloorId())
+                .subject(request.getSubject())
+                .message(request.getMessage())
+                .status(BulkMailJob.STATUS_QUEUEING)
+                .createdBy(createdBy)
+                .build());
+        submit(job.getId());
+        return toResponse(job);
+    }
+
+    public List<BulkMailJobResponse> getJobs() {
+        return bulkMailJobRepository.findAllByOrderByIdDesc().stream()
+                .map(this::toResponse)
+                .collect(Collectors.toList());
+    }
+
+    public BulkMailJobResponse getJob(Long id) {
+        return toResponse(findJob(id));
+    }
+
+    /** Continues queueing a job that stopped part-way (e.g. after a failure). */
+    public BulkMailJobResponse resume(Long id) {
+        BulkMailJob job = findJob(id);
+        if (!BulkMailJob.STATUS_QUEUEING.equals(job.getStatus()))
+            throw new IllegalArgumentException("Job " + id + " is " + job.getStatus());
+        submit(id);
+        return toResponse(job);
+    }
+
+    /** Stops queueing and withdraws the job's mail that has not been sent yet. */
+    public BulkMailJobResponse cancel(Long id) {
+        BulkMailJob job = transactionTemplate.execute(status -> {
+            BulkMailJob current = lockJob(id);
+            if (BulkMailJob.STATUS_CANCELLED.equals(current.getStatus()))
+                return current;
+            current.setStatus(BulkMailJob.STATUS_CANCELLED);
+            mailOutboxRepository.cancelPendingForJob(id);
+            return bulkMailJobRepository.save(current);
+        });
+        return toResponse(job);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterruptedJobs() {
+        for (BulkMailJob job : bulkMailJobRepository.findByStatus(BulkMailJob.STATUS_QUEUEING)) {
+            log.info("Resuming bulk mail job {} from cursor {}", job.getId(), job.getCursorId());
+            submit(job.getId());
+        }
+    }
+
+    private void submit(Long jobId) {
+        if (activeJobs.add(jobId)) {
+            queueing.execute(() -> {
+                try {
+                    queueAll(jobId);
+                } catch (RuntimeException e) {
+                    log.error("Bulk mail job {} stopped: {}", jobId, e.getMessage());
+                } finally {
+                    activeJobs.remove(jobId);
+                }
+            });
+        }
+    }
+
+    private void queueAll(Long jobId) {
+        boolean more = true;
+        while (more) {
+            more = Boolean.TRUE.equals(transactionTemplate.execute(status -> queueChunk(jobId)));
+            mailOutboxDispatcher.requestDrain();
+        }
+    }
+
+    /** Queues the next chunk and advances the cursor; returns false once the job is fully queued. */
+    private boolean queueChunk(Long jobId) {
+        BulkMailJob job = lockJob(jobId);
+        if (!BulkMailJob.STATUS_QUEUEING.equals(job.getStatus()))
+            return false;
+
+        boolean qrPass = BulkMailJob.KIND_QR_PASS.equals(job.getKind());
+        PageRequest chunk = PageRequest.of(0, chunkSize);
+        List<MailRecipientRow> recipients = qrPass
+                ? reservationRepository.findQrPassRecipients(job.getCursorId(), job.getFloorId(), chunk)
+                : reservationRepository.findAnnouncementRecipients(job.getCursorId(), job.getFloorId(), chunk);
+
+        if (recipients.isEmpty()) {
+            job.setStatus(BulkMailJob.STATUS_QUEUED);
+            bulkMailJobRepository.save(job);
+            log.info("Bulk mail job {} queued {} mail(s)", jobId, job.getQueued());
+            return false;
+        }
+
+        Map<Long, String> stallDetails = qrPass ? stallDetails(recipients) : Map.of();
+        List<MailOutbox> mails = new ArrayList<>(recipients.size());
+        for (MailRecipientRow recipient : recipients) {
+            mails.add(MailOutbox.builder()
+                    .kind(qrPass ? MailOutbox.KIND_QR_PASS : MailOutbox.KIND_ANNOUNCEMENT)
+                    .jobId(jobId)
+                    .priority(MailOutbox.PRIORITY_BULK)
+                    .recipient(recipient.email())
+                    .recipientName(recipient.name())
+                    .contactNumber(recipient.contactNumber() != null ? recipient.contactNumber() : "N/A")
+                    .reservationCode(recipient.reservationCode())
+                    .paymentStatus(recipient.paymentStatus())
+                    .stallDetails(stallDetails.get(recipient.cursorId()))
+                    .subject(job.getSubject())
+                    .body(job.getMessage())
+                    .build());
+        }
+        mailOutboxRepository.saveAll(mails);
+
+        job.setCursorId(recipients.get(recipients.size() - 1).cursorId());
+        job.setQueued(job.getQueued() + mails.size());
+        bulkMailJobRepository.save(job);
+        return true;
+    }
+
+    /** "A1 (SMALL), A2 (LARGE)" per reservation id, as in the confirmation mail. */
+    private Map<Long, String> stallDetails(List<MailRecipientRow> recipients) {
+        List<Long> reservationIds = recipients.stream().map(MailRecipientRow::cursorId).toList();
+        Map<Long, List<String>> stalls = new HashMap<>();
+        for (ReservationStall link : reservationStallRepository.findActiveWithStallsByReservationIdIn(reservationIds)) {
+            Stall stall = link.getStall();
+            stalls.computeIfAbsent(link.getReservation().getId(), id -> new ArrayList<>())
+                    .add(stall.getStallCode() + " (" + stall.getSize() + ")");
+        }
+        Map<Long, String> details = new HashMap<>();
+        stalls.forEach((id, codes) -> details.put(id, String.join(", ", codes)));
+        return details;
+    }
+
+    private BulkMailJob findJob(Long id) {
+        return bulkMailJobRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Bulk mail job not found with id: " + id));
+    }
+
+    private BulkMailJob lockJob(Long id) {
+        return bulkMailJobRepository.findByIdForUpdate(id)
+                .orElseThrow(() -> new RuntimeException("Bulk mail job not found with id: " + id));
+    }
+
+    private BulkMailJobResponse toResponse(BulkMailJob job) {
+        Map<String, Long> counts = new HashMap<>();
+        for (Object[] row : mailOutboxRepository.countByStatusForJob(job.getId())) {
+            counts.put((String) row[0], (Long) row[1]);
+        }
+        return BulkMailJobResponse.builder()
+                .id(job.getId())
+                .kind(job.getKind())
+                .floorId(job.getFloorId())
+                .subject(job.getSubject())
+                .status(job.getStatus())
+                .queued(job.getQueued())
+                .sent(counts.getOrDefault(MailOutbox.STATUS_SENT, 0L))
+                .pending(counts.getOrDefault(MailOutbox.STATUS_PENDING, 0L))
+                .failed(counts.getOrDefault(MailOutbox.STATUS_DEAD, 0L))
+                .cancelled(counts.getOrDefault(MailOutbox.STATUS_CANCELLED, 0L))
+                .createdBy(job.getCreatedBy())
+                .createdAt(job.getCreatedAt())
+                .updatedAt(job.getUpdatedAt())
+                .build();
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        queueing.shutdownNow();
+    }
+}
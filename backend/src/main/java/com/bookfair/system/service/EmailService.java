@@ -1,107 +1,166 @@
 package com.bookfair.system.service;
 
+import jakarta.mail.AuthenticationFailedException;
 import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
 import jakarta.mail.internet.MimeMessage;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.ByteArrayResource;
-import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
 import org.springframework.mail.javamail.MimeMessageHelper;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
-import java.util.Base64;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class EmailService {
 
-    private final JavaMailSender mailSender;
+    private static final HtmlTemplate RESERVATION_TEMPLATE = HtmlTemplate.fromClasspath(
+            "templates/mail/reservation-confirmed.html",
+            "userName", "mobileNumber", "stallDetails", "paymentStatus");
+    private static final HtmlTemplate ANNOUNCEMENT_TEMPLATE = HtmlTemplate.fromClasspath(
+            "templates/mail/announcement.html",
+            "userName", "subject", "message");
+
+    public static final String RESERVATION_SUBJECT = "Reservation Confirmed - Colombo Book Fair";
+    public static final String QR_PASS_SUBJECT = "Your Entry QR Pass - Colombo Book Fair";
+
+    /** Per-thread render buffer; dropped again if a message made it unusually large. */
+    private static final ThreadLocal<StringBuilder> BUFFER =
+            ThreadLocal.withInitial(() -> new StringBuilder(RESERVATION_TEMPLATE.expectedLength() + 512));
+    private static final int MAX_RETAINED_BUFFER = 64 * 1024;
+
+    private final JavaMailSenderImpl mailSender;
 
     @Value("${spring.mail.username}")
     private String fromEmail;
 
-    @Async
-    public void sendReservationEmail(String toEmail, String userName, String mobileNumber, String paymentStatus,
-            String qrCodeBase64, String stallDetails) {
+    /**
+     * Builds the reservation confirmation mail (also used, with another
+     * subject, to re-issue QR passes) without sending it. The QR PNG is
+     * attached inline as-is.
+     */
+    public MimeMessage createReservationEmail(String subject, String toEmail, String userName, String mobileNumber,
+            String paymentStatus, byte[] qrCodePng, String stallDetails) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        // 'true' = multipart (needed for attachments/images)
+        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+
+        helper.setFrom(fromEmail);
+        helper.setTo(toEmail);
+        helper.setSubject(subject);
+
+        StringBuilder html = buffer();
+        RESERVATION_TEMPLATE.render(html, userName, mobileNumber, stallDetails, paymentStatus);
+        helper.setText(html.toString(), true);
+
+        // Attach the image using the Content-ID 'qrImage' matched in the HTML above
+        helper.addInline("qrImage", new ByteArrayResource(qrCodePng), "image/png");
+
+        return message;
+    }
+
+    /** Builds a plain announcement mail (no attachments) without sending it. */
+    public MimeMessage createAnnouncementEmail(String toEmail, String userName, String subject, String text)
+            throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, false, "UTF-8");
+
+        helper.setFrom(fromEmail);
+        helper.setTo(toEmail);
+        helper.setSubject(subject);
+
+        StringBuilder html = buffer();
+        ANNOUNCEMENT_TEMPLATE.render(html, userName, subject, text);
+        helper.setText(html.toString(), true);
+        return message;
+    }
+
+    /**
+     * Blocking send of a batch over a single SMTP connection, taking one
+     * permit from {@code rateLimiter} before each message so the batch is
+     * paced rather than sent as a burst. Failures are reported per message
+     * through {@link MailSendException#getFailedMessages()}, as
+     * JavaMailSender does; a lost connection is re-opened for the next
+     * message. Callers run this off the request thread (see
+     * MailOutboxDispatcher).
+     */
+    void send(List<MimeMessage> messages, SendRateLimiter rateLimiter) throws InterruptedException {
+        Map<Object, Exception> failed = new LinkedHashMap<>();
+        Transport transport = null;
         try {
-            MimeMessage message = mailSender.createMimeMessage();
-            // 'true' = multipart (needed for attachments/images)
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-
-            helper.setFrom(fromEmail);
-            helper.setTo(toEmail);
-            helper.setSubject("Reservation Confirmed - Colombo Book Fair");
-
-            // HTML Content with new template
-            String htmlContent = String.format(
-                    "<html>" +
-                            "<head>" +
-                            "<style>" +
-                            "  body { font-family: 'Segoe UI', Tahoma, Geneva, Verdana, sans-serif; background-color: #f4f7f6; color: #333; margin: 0; padding: 20px; }"
-                            +
-                            "  .container { max-width: 600px; margin: 0 auto; background: #ffffff; padding: 30px; border-radius: 8px; box-shadow: 0 4px 8px rgba(0,0,0,0.1); }"
-                            +
-                            "  .header { text-align: center; border-bottom: 2px solid #0056b3; padding-bottom: 10px; margin-bottom: 20px; }"
-                            +
-                            "  .header h1 { color: #0056b3; margin: 0; }" +
-                            "  .content p { font-size: 16px; line-height: 1.5; }" +
-                            "  .details { background-color: #e9ecef; padding: 15px; border-radius: 5px; margin: 20px 0; }"
-                            +
-                            "  .details ul { list-style-type: none; padding: 0; margin: 0; }" +
-                            "  .details li { font-size: 16px; margin-bottom: 8px; }" +
-                            "  .details strong { width: 140px; display: inline-block; }" +
-                            "  .qr-code { text-align: center; margin-top: 20px; }" +
-                            "  .qr-code img { width: 200px; height: 200px; border: 1px solid #ddd; border-radius: 8px; padding: 10px; background: #fff; }"
-                            +
-                            "  .footer { text-align: center; font-size: 14px; color: #777; margin-top: 30px; border-top: 1px solid #ddd; padding-top: 10px; }"
-                            +
-                            "</style>" +
-                            "</head>" +
-                            "<body>" +
-                            "<div class='container'>" +
-                            "  <div class='header'>" +
-                            "    <h1>Colombo Book Fair</h1>" +
-                            "    <h2>Reservation Confirmed</h2>" +
-                            "  </div>" +
-                            "  <div class='content'>" +
-                            "    <p>Hello <b>%s</b>,</p>" +
-                            "    <p>Thank you for reserving your stall with us. Please find your reservation details below:</p>"
-                            +
-                            "    <div class='details'>" +
-                            "      <ul>" +
-                            "        <li><strong>Mobile Number:</strong> %s</li>" +
-                            "        <li><strong>Stall(s):</strong> %s</li>" +
-                            "        <li><strong>Payment Status:</strong> <b>%s</b></li>" +
-                            "      </ul>" +
-                            "    </div>" +
-                            "    <p>Please present the QR code below at the entrance for quick access.</p>" +
-                            "  </div>" +
-                            "  <div class='qr-code'>" +
-                            "    <img src='cid:qrImage' alt='Reservation QR Code' />" +
-                            "  </div>" +
-                            "  <div class='footer'>" +
-                            "    <p>We look forward to seeing you at the fair!</p>" +
-                            "  </div>" +
-                            "</div>" +
-                            "</body>" +
-                            "</html>",
-                    userName, mobileNumber, stallDetails, paymentStatus);
-
-            helper.setText(htmlContent, true);
-
-            // Convert Base64 QR code back to bytes
-            byte[] imageBytes = Base64.getDecoder().decode(qrCodeBase64);
-            ByteArrayResource imageResource = new ByteArrayResource(imageBytes);
-
-            // Attach the image using the Content-ID 'qrImage' matched in the HTML above
-            helper.addInline("qrImage", imageResource, "image/png");
-
-            mailSender.send(message);
-            System.out.println("✅ Email sent successfully to: " + toEmail);
-
-        } catch (MessagingException e) {
-            System.err.println("❌ Failed to send email: " + e.getMessage());
+            for (int i = 0; i < messages.size(); i++) {
+                MimeMessage message = messages.get(i);
+                rateLimiter.acquire(1);
+                if (transport == null || !transport.isConnected()) {
+                    try {
+                        transport = connect();
+                    } catch (AuthenticationFailedException e) {
+                        throw new MailAuthenticationException(e);
+                    } catch (MessagingException e) {
+                        // Nothing else can go out; the rest of the batch fails with this message
+                        for (MimeMessage unsent : messages.subList(i, messages.size())) {
+                            failed.put(unsent, e);
+                        }
+                        break;
+                    }
+                }
+                try {
+                    if (message.getSentDate() == null) {
+                        message.setSentDate(new Date());
+                    }
+                    message.saveChanges();
+                    transport.sendMessage(message, message.getAllRecipients());
+                } catch (MessagingException e) {
+                    failed.put(message, e);
+                }
+            }
+        } finally {
+            close(transport);
+        }
+        if (!failed.isEmpty()) {
+            throw new MailSendException(failed);
+        }
+        log.debug("Sent {} e-mail(s)", messages.size());
+    }
+
+    private Transport connect() throws MessagingException {
+        Transport transport = mailSender.getSession().getTransport(
+                mailSender.getProtocol() != null ? mailSender.getProtocol() : "smtp");
+        String username = mailSender.getUsername();
+        String password = mailSender.getPassword();
+        transport.connect(mailSender.getHost(), mailSender.getPort(),
+                username != null && !username.isEmpty() ? username : null,
+                password != null && !password.isEmpty() ? password : null);
+        return transport;
+    }
+
+    private static void close(Transport transport) {
+        if (transport != null) {
+            try {
+                transport.close();
+            } catch (MessagingException e) {
+                log.debug("Could not close SMTP connection: {}", e.getMessage());
+            }
+        }
+    }
+
+    private static StringBuilder buffer() {
+        StringBuilder html = BUFFER.get();
+        if (html.capacity() > MAX_RETAINED_BUFFER) {
+            html = new StringBuilder(RESERVATION_TEMPLATE.expectedLength() + 512);
+            BUFFER.set(html);
         }
+        html.setLength(0);
+        return html;
     }
 }
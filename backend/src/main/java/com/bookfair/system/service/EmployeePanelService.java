@@ -0,0 +1,78 @@
+package com.bookfair.system.service;
+
+import com.bookfair.system.dto.EmployeeStallDetailsDto;
+import com.bookfair.system.repository.StallRepository;
+import com.bookfair.system.repository.projection.EmployeeStallRow;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Read model behind the employee stall panel. Stall, vendor, reservation and
+ * payment data come from one projection query, so latency does not grow with
+ * the number of reserved stalls.
+ */
+@Service
+@RequiredArgsConstructor
+public class EmployeePanelService {
+
+    private final StallRepository stallRepository;
+
+    @Transactional(readOnly = true)
+    public List<EmployeeStallDetailsDto> getStalls(Long floorId) {
+        return load(floorId, null);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<EmployeeStallDetailsDto> getStall(Long stallId) {
+        return load(null, stallId).stream().findFirst();
+    }
+
+    private List<EmployeeStallDetailsDto> load(Long floorId, Long stallId) {
+        List<EmployeeStallRow> rows = stallRepository.findEmployeeStallRows(floorId, stallId);
+        List<EmployeeStallDetailsDto> dtos = new ArrayList<>(rows.size());
+        for (EmployeeStallRow row : rows) {
+            dtos.add(toDto(row));
+        }
+        return dtos;
+    }
+
+    private EmployeeStallDetailsDto toDto(EmployeeStallRow row) {
+        String size = row.size() != null ? row.size() : "UNKNOWN";
+        EmployeeStallDetailsDto dto = EmployeeStallDetailsDto.builder()
+                .stallId(row.stallId())
+                .stallCode(row.stallCode())
+                .stallType(size)
+                .stallSize(size)
+                .price(row.price() != null ? row.price() : 0.0)
+                .floorName(row.floorName())
+                .reserved(row.reserved())
+                .disabled(row.disabled())
+                .build();
+
+        if (row.reservationId() != null) {
+            dto.setVendorName(row.vendorName());
+            dto.setVendorEmail(row.vendorEmail());
+            dto.setVendorContact(row.vendorContact());
+            dto.setBusinessName(row.businessName());
+
+            // Generate QR data string (JSON format)
+            dto.setQrCodeData(String.format(
+                    "{\"stall\":\"%s\",\"vendor\":\"%s\",\"contact\":\"%s\",\"resId\":\"%d\"}",
+                    row.stallCode(),
+                    row.vendorName(),
+                    row.vendorEmail(),
+                    row.reservationId()));
+
+            dto.setPaymentStatus(row.paymentStatus());
+            dto.setPaymentAmount(row.paymentAmount());
+            dto.setPaymentDate(row.paymentDate());
+            dto.setPaymentMethod(row.paymentMethod());
+        }
+        return dto;
+    }
+}
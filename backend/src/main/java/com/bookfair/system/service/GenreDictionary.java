@@ -0,0 +1,72 @@
+package com.bookfair.system.service;
+
+import com.bookfair.system.entity.Genre;
+import com.bookfair.system.repository.GenreRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Case-insensitive, in-memory name to id lookup for the (rarely changing)
+ * genres table. Loaded with one query and reloaded once when a name is not
+ * found, so newly seeded genres are picked up without a restart.
+ */
+@Component
+@RequiredArgsConstructor
+public class GenreDictionary {
+
+    private final GenreRepository genreRepository;
+
+    private volatile Map<String, Long> idsByName;
+
+    /**
+     * Resolves the given names (trimmed, any case) to genre ids, keyed by the
+     * cleaned name in input order. Unknown names are left out of the result.
+     */
+    public Map<String, Long> resolve(Collection<String> names) {
+        Map<String, Long> resolved = lookup(names, dictionary());
+        if (resolved.size() < countDistinct(names)) {
+            resolved = lookup(names, reload());
+        }
+        return resolved;
+    }
+
+    private Map<String, Long> dictionary() {
+        Map<String, Long> current = idsByName;
+        return current != null ? current : reload();
+    }
+
+    private synchronized Map<String, Long> reload() {
+        Map<String, Long> loaded = new HashMap<>();
+        for (Genre genre : genreRepository.findAll()) {
+            loaded.put(key(genre.getName()), genre.getId());
+        }
+        idsByName = loaded;
+        return loaded;
+    }
+
+    private static Map<String, Long> lookup(Collection<String> names, Map<String, Long> dictionary) {
+        Map<String, Long> resolved = new LinkedHashMap<>();
+        for (String name : names) {
+            String cleanName = name.trim();
+            Long id = dictionary.get(key(cleanName));
+            if (id != null) {
+                resolved.put(cleanName, id);
+            }
+        }
+        return resolved;
+    }
+
+    private static long countDistinct(Collection<String> names) {
+        return names.stream().map(String::trim).distinct().count();
+    }
+
+    private static String key(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,102 @@
+package com.bookfair.system.service;
+
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal precompiled HTML template.
+ *
+ * The source is split once into literal chunks and {@code {{name}}} slots.
+ * Rendering appends the chunks and the HTML-escaped slot values to a buffer
+ * supplied by the caller, so nothing is parsed or formatted per message.
+ */
+final class HtmlTemplate {
+
+    private final String[] literals; // one more than slots: text before, between and after
+    private final int[] slots;       // index into the render arguments for each slot
+    private final int expectedLength;
+
+    private HtmlTemplate(String[] literals, int[] slots) {
+        this.literals = literals;
+        this.slots = slots;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.expectedLength = length;
+    }
+
+    /**
+     * Compiles {@code source}. Render arguments are passed in the order of
+     * {@code slotNames}; a placeholder not listed there is rejected.
+     */
+    static HtmlTemplate compile(String source, String... slotNames) {
+        List<String> names = List.of(slotNames);
+        List<String> literals = new ArrayList<>();
+        List<Integer> slots = new ArrayList<>();
+        int pos = 0;
+        int open;
+        while ((open = source.indexOf("{{", pos)) >= 0) {
+            int close = source.indexOf("}}", open + 2);
+            if (close < 0) {
+                throw new IllegalArgumentException("Unclosed placeholder at offset " + open);
+            }
+            String name = source.substring(open + 2, close).trim();
+            int index = names.indexOf(name);
+            if (index < 0) {
+                throw new IllegalArgumentException("Unknown placeholder: " + name);
+            }
+            literals.add(source.substring(pos, open));
+            slots.add(index);
+            pos = close + 2;
+        }
+        literals.add(source.substring(pos));
+        return new HtmlTemplate(literals.toArray(new String[0]),
+                slots.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    static HtmlTemplate fromClasspath(String path, String... slotNames) {
+        try (InputStream in = new ClassPathResource(path).getInputStream()) {
+            return compile(new String(in.readAllBytes(), StandardCharsets.UTF_8), slotNames);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot load template " + path, e);
+        }
+    }
+
+    /** Static text length; a good initial capacity for render buffers. */
+    int expectedLength() {
+        return expectedLength;
+    }
+
+    /** Appends the rendered template to {@code out}; null values render as empty. */
+    void render(StringBuilder out, String... values) {
+        out.append(literals[0]);
+        for (int i = 0; i < slots.length; i++) {
+            escape(values[slots[i]], out);
+            out.append(literals[i + 1]);
+        }
+    }
+
+    static void escape(String value, StringBuilder out) {
+        if (value == null) {
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '&' -> out.append("&amp;");
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '"' -> out.append("&quot;");
+                case '\'' -> out.append("&#39;");
+                default -> out.append(c);
+            }
+        }
+    }
+}
@@ -0,0 +1,345 @@
+package com.bookfair.system.service;
+
+import com.bookfair.system.entity.MailOutbox;
+import com.bookfair.system.repository.MailOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the mail outbox from a single coordinator thread.
+ *
+ * Due rows are claimed in batches, transactional mail ahead of bulk mail.
+ * Claiming locks them with SKIP LOCKED, leases them by pushing next_attempt_at
+ * forward and counts the attempt, and commits before any SMTP work, so no DB
+ * transaction spans the mail server. Messages (QR images included) are
+ * rendered on a bounded pool; the batch is then split across a fixed number of
+ * SMTP connections, one connection per slice, under a shared per-message rate
+ * limit. Failed messages are retried with exponential backoff and moved to
+ * DEAD after the configured number of attempts. A row whose dispatcher dies
+ * mid-send becomes due again when its lease ends, so delivery is
+ * at-least-once. Outcomes are only written to rows still PENDING under the
+ * batch's lease, so a bulk-mail cancel or a re-lease by another instance
+ * during the send is never overwritten.
+ */
+@Slf4j
+@Service
+public class MailOutboxDispatcher {
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final MailOutboxRepository mailOutboxRepository;
+    private final EmailService emailService;
+    private final QrCodeService qrCodeService;
+    private final TransactionTemplate transactionTemplate;
+
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Duration lease;
+
+    private final int smtpConnections;
+    private final SendRateLimiter rateLimiter;
+
+    private final ScheduledExecutorService worker;
+    private final ExecutorService renderPool;
+    private final ExecutorService senderPool;
+    private final AtomicBoolean drainPending = new AtomicBoolean();
+    private final AtomicLong pendingDepth = new AtomicLong();
+    private final AtomicLong deadDepth = new AtomicLong();
+    private final Counter sentCounter;
+    private final Counter retryCounter;
+    private final Counter deadCounter;
+
+    public MailOutboxDispatcher(MailOutboxRepository mailOutboxRepository,
+            EmailService emailService,
+            QrCodeService qrCodeService,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${app.mail.outbox.batch-size:50}") int batchSize,
+            @Value("${app.mail.outbox.max-attempts:8}") int maxAttempts,
+            @Value("${app.mail.outbox.initial-backoff-seconds:30}") long initialBackoffSeconds,
+            @Value("${app.mail.outbox.max-backoff-seconds:3600}") long maxBackoffSeconds,
+            @Value("${app.mail.outbox.lease-seconds:300}") long leaseSeconds,
+            @Value("${app.mail.outbox.poll-seconds:10}") long pollSeconds,
+            @Value("${app.mail.render-threads:4}") int renderThreads,
+            @Value("${app.mail.smtp.connections:2}") int smtpConnections,
+            @Value("${app.mail.smtp.rate-per-second:10}") double ratePerSecond) {
+        this.mailOutboxRepository = mailOutboxRepository;
+        this.emailService = emailService;
+        this.qrCodeService = qrCodeService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = Duration.ofSeconds(initialBackoffSeconds);
+        this.maxBackoff = Duration.ofSeconds(maxBackoffSeconds);
+        this.lease = Duration.ofSeconds(leaseSeconds);
+        this.smtpConnections = Math.max(smtpConnections, 1);
+        this.rateLimiter = new SendRateLimiter(ratePerSecond);
+
+        Gauge.builder("mail.outbox.depth", pendingDepth, AtomicLong::get)
+                .tag("status", MailOutbox.STATUS_PENDING).register(meterRegistry);
+        Gauge.builder("mail.outbox.depth", deadDepth, AtomicLong::get)
+                .tag("status", MailOutbox.STATUS_DEAD).register(meterRegistry);
+        this.sentCounter = meterRegistry.counter("mail.outbox.sent");
+        this.retryCounter = meterRegistry.counter("mail.outbox.retried");
+        this.deadCounter = meterRegistry.counter("mail.outbox.dead");
+
+        this.renderPool = daemonPool(renderThreads, "mail-render");
+        this.senderPool = daemonPool(this.smtpConnections, "mail-smtp");
+        // Queue depth, active threads and task timings of the mail pools
+        new ExecutorServiceMetrics(renderPool, "mail.render", Tags.empty()).bindTo(meterRegistry);
+        new ExecutorServiceMetrics(senderPool, "mail.smtp", Tags.empty()).bindTo(meterRegistry);
+        this.worker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "mail-outbox");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Polling picks up retries and rows left by other instances or a restart
+        this.worker.scheduleWithFixedDelay(this::requestDrain, pollSeconds, pollSeconds, TimeUnit.SECONDS);
+    }
+
+    /** Schedules a drain soon; bursts of calls collapse into one pass. */
+    public void requestDrain() {
+        if (drainPending.compareAndSet(false, true)) {
+            worker.execute(this::drain);
+        }
+    }
+
+    /** Sends everything that is currently due. Runs on the outbox thread. */
+    void drain() {
+        drainPending.set(false);
+        try {
+            List<MailOutbox> batch;
+            do {
+                batch = claimDue();
+                if (!batch.isEmpty()) {
+                    deliver(batch);
+                }
+            } while (batch.size() == batchSize);
+            refreshDepth();
+        } catch (RuntimeException e) {
+            log.error("Mail outbox drain failed: {}", e.getMessage());
+        }
+    }
+
+    private List<MailOutbox> claimDue() {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            // Identifies the lease when outcomes are recorded; TIMESTAMP keeps microseconds
+            LocalDateTime leasedUntil = now.plus(lease).truncatedTo(ChronoUnit.MICROS);
+            List<MailOutbox> due = mailOutboxRepository.lockDue(now, batchSize);
+            for (MailOutbox mail : due) {
+                mail.setAttempts(mail.getAttempts() + 1);
+                mail.setNextAttemptAt(leasedUntil);
+            }
+            return due;
+        });
+    }
+
+    /**
+     * Renders the batch in parallel, then sends it as one slice per SMTP
+     * connection, each slice over a single connection and paced by the rate
+     * limiter. Outcomes are recorded in one transaction.
+     */
+    private void deliver(List<MailOutbox> batch) {
+        Map<MailOutbox, Exception> failures = new IdentityHashMap<>();
+
+        List<CompletableFuture<MimeMessage>> rendering = new ArrayList<>(batch.size());
+        for (MailOutbox mail : batch) {
+            rendering.add(CompletableFuture.supplyAsync(() -> render(mail), renderPool));
+        }
+        Map<MimeMessage, MailOutbox> messages = new IdentityHashMap<>();
+        for (int i = 0; i < batch.size(); i++) {
+            try {
+                messages.put(rendering.get(i).join(), batch.get(i));
+            } catch (CompletionException e) {
+                failures.put(batch.get(i), cause(e));
+            }
+        }
+
+        List<CompletableFuture<Map<MailOutbox, Exception>>> sending = new ArrayList<>();
+        for (Map<MimeMessage, MailOutbox> slice : slices(messages, smtpConnections)) {
+            sending.add(CompletableFuture.supplyAsync(() -> send(slice), senderPool));
+        }
+        for (CompletableFuture<Map<MailOutbox, Exception>> slice : sending) {
+            failures.putAll(slice.join());
+        }
+
+        List<Long> sentIds = new ArrayList<>(batch.size());
+        for (MailOutbox mail : batch) {
+            if (!failures.containsKey(mail)) {
+                sentIds.add(mail.getId());
+            }
+        }
+        LocalDateTime leasedUntil = batch.get(0).getNextAttemptAt();
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!sentIds.isEmpty()) {
+                int marked = mailOutboxRepository.markSent(sentIds, leasedUntil, LocalDateTime.now());
+                if (marked < sentIds.size()) {
+                    log.info("{} sent mail(s) were cancelled or re-leased during the send", sentIds.size() - marked);
+                }
+            }
+            failures.forEach(this::recordFailure);
+        });
+        sentCounter.increment(sentIds.size());
+    }
+
+    /** Sends one slice over one SMTP connection; returns the messages that failed. */
+    private Map<MailOutbox, Exception> send(Map<MimeMessage, MailOutbox> slice) {
+        Map<MailOutbox, Exception> failures = new IdentityHashMap<>();
+        try {
+            emailService.send(new ArrayList<>(slice.keySet()), rateLimiter);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            slice.values().forEach(mail -> failures.put(mail, e));
+        } catch (MailSendException e) {
+            Map<Object, Exception> failed = e.getFailedMessages();
+            if (failed.isEmpty()) {
+                slice.values().forEach(mail -> failures.put(mail, e));
+            } else {
+                failed.forEach((message, cause) -> {
+                    MailOutbox mail = slice.get(message);
+                    if (mail != null) {
+                        failures.put(mail, cause);
+                    }
+                });
+            }
+        } catch (MailException e) {
+            // Authentication or connection level: nothing in the slice went out
+            slice.values().forEach(mail -> failures.put(mail, e));
+        }
+        return failures;
+    }
+
+    private MimeMessage render(MailOutbox mail) {
+        try {
+            return switch (mail.getKind()) {
+                case MailOutbox.KIND_RESERVATION_CONFIRMED, MailOutbox.KIND_QR_PASS -> emailService.createReservationEmail(
+                        MailOutbox.KIND_QR_PASS.equals(mail.getKind())
+                                ? EmailService.QR_PASS_SUBJECT
+                                : EmailService.RESERVATION_SUBJECT,
+                        mail.getRecipient(),
+                        mail.getRecipientName(),
+                        mail.getContactNumber(),
+                        mail.getPaymentStatus(),
+                        qrCodeService.getPng(mail.getReservationCode()),
+                        mail.getStallDetails());
+                case MailOutbox.KIND_ANNOUNCEMENT -> emailService.createAnnouncementEmail(
+                        mail.getRecipient(),
+                        mail.getRecipientName(),
+                        mail.getSubject(),
+                        mail.getBody());
+                default -> throw new IllegalStateException("Unknown mail kind: " + mail.getKind());
+            };
+        } catch (MessagingException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    private static List<Map<MimeMessage, MailOutbox>> slices(Map<MimeMessage, MailOutbox> messages, int count) {
+        int sliceCount = Math.min(count, messages.size());
+        List<Map<MimeMessage, MailOutbox>> slices = new ArrayList<>(sliceCount);
+        for (int i = 0; i < sliceCount; i++) {
+            slices.add(new IdentityHashMap<>());
+        }
+        int i = 0;
+        for (Map.Entry<MimeMessage, MailOutbox> entry : messages.entrySet()) {
+            slices.get(i++ % sliceCount).put(entry.getKey(), entry.getValue());
+        }
+        return slices;
+    }
+
+    private static Exception cause(CompletionException e) {
+        return e.getCause() instanceof Exception cause ? cause : e;
+    }
+
+    private void recordFailure(MailOutbox mail, Exception cause) {
+        String error = abbreviate(cause.getMessage() != null ? cause.getMessage() : cause.getClass().getName());
+        if (mail.getAttempts() >= maxAttempts) {
+            log.error("Giving up on mail {} to {} after {} attempts: {}",
+                    mail.getId(), mail.getRecipient(), mail.getAttempts(), error);
+            if (mailOutboxRepository.markFailed(mail.getId(), mail.getNextAttemptAt(),
+                    MailOutbox.STATUS_DEAD, mail.getNextAttemptAt(), error) > 0) {
+                deadCounter.increment();
+            }
+        } else {
+            LocalDateTime retryAt = LocalDateTime.now().plus(backoff(mail.getAttempts()));
+            log.warn("Mail {} to {} failed (attempt {}), retrying at {}: {}",
+                    mail.getId(), mail.getRecipient(), mail.getAttempts(), retryAt, error);
+            if (mailOutboxRepository.markFailed(mail.getId(), mail.getNextAttemptAt(),
+                    MailOutbox.STATUS_PENDING, retryAt, error) > 0) {
+                retryCounter.increment();
+            }
+        }
+    }
+
+    /** initialBackoff * 2^(attempts - 1), capped at maxBackoff. */
+    Duration backoff(int attempts) {
+        int shift = Math.min(Math.max(attempts - 1, 0), 30);
+        Duration delay = initialBackoff.multipliedBy(1L << shift);
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+
+    private void refreshDepth() {
+        long pending = 0;
+        long dead = 0;
+        for (Object[] row : mailOutboxRepository.countByStatus()) {
+            if (MailOutbox.STATUS_PENDING.equals(row[0])) {
+                pending = (Long) row[1];
+            } else if (MailOutbox.STATUS_DEAD.equals(row[0])) {
+                dead = (Long) row[1];
+            }
+        }
+        pendingDepth.set(pending);
+        deadDepth.set(dead);
+    }
+
+    private static String abbreviate(String message) {
+        return message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    private static ExecutorService daemonPool(int threads, String name) {
+        return Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdownNow();
+        renderPool.shutdownNow();
+        senderPool.shutdownNow();
+    }
+}
@@ -0,0 +1,218 @@
+package com.bookfair.system.service;
+
+import com.google.zxing.WriterException;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.google.zxing.qrcode.encoder.ByteMatrix;
+import com.google.zxing.qrcode.encoder.Encoder;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Allocation-lean QR renderer.
+ *
+ * Encodes the text to the raw module matrix and writes it straight to a
+ * 1-bit grayscale PNG (no BitMatrix scaling, no BufferedImage, no ImageIO).
+ * The layout matches {@code QRCodeWriter} + {@code MatrixToImageWriter} at the
+ * same size: 4-module quiet zone, integer module scale, centred.
+ * Deflater and scratch buffers are reused per thread.
+ *
+ * Also emits a compact SVG (one path, horizontal runs) that needs no raster
+ * encoding at all.
+ */
+@Component
+public class QrCodeRenderer {
+
+    private static final int QUIET_ZONE = 4;
+
+    private static final byte[] PNG_SIGNATURE = {
+            (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'
+    };
+    private static final byte[] IHDR = "IHDR".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] IDAT = "IDAT".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] IEND = "IEND".getBytes(StandardCharsets.US_ASCII);
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    /** Renders {@code text} as a {@code size}x{@code size} PNG. */
+    public byte[] renderPng(String text, int size) throws WriterException {
+        ByteMatrix matrix = encode(text);
+        int modules = matrix.getWidth();
+        int qrWidth = modules + QUIET_ZONE * 2;
+        int outputSize = Math.max(size, qrWidth);
+        int multiple = outputSize / qrWidth;
+        int padding = (outputSize - modules * multiple) / 2;
+
+        int rowBytes = 1 + (outputSize + 7) / 8; // filter byte + packed pixels
+        Scratch scratch = SCRATCH.get();
+        byte[] raw = scratch.raw(rowBytes * outputSize);
+
+        // Blank (all-white) row used for the quiet zone above and below
+        byte[] white = scratch.row(rowBytes);
+        Arrays.fill(white, (byte) 0xFF);
+        white[0] = 0;
+        clearTrailingBits(white, outputSize);
+
+        int offset = 0;
+        for (int y = 0; y < padding; y++, offset += rowBytes) {
+            System.arraycopy(white, 0, raw, offset, rowBytes);
+        }
+        for (int my = 0; my < modules; my++) {
+            // Build the scanline for this module row once, then repeat it
+            int rowStart = offset;
+            System.arraycopy(white, 0, raw, rowStart, rowBytes);
+            for (int mx = 0; mx < modules; mx++) {
+                if (matrix.get(mx, my) == 1) {
+                    int x0 = padding + mx * multiple;
+                    for (int x = x0; x < x0 + multiple; x++) {
+                        raw[rowStart + 1 + (x >> 3)] &= (byte) ~(0x80 >>> (x & 7));
+                    }
+                }
+            }
+            offset += rowBytes;
+            for (int r = 1; r < multiple; r++, offset += rowBytes) {
+                System.arraycopy(raw, rowStart, raw, offset, rowBytes);
+            }
+        }
+        for (; offset < rowBytes * outputSize; offset += rowBytes) {
+            System.arraycopy(white, 0, raw, offset, rowBytes);
+        }
+
+        Deflater deflater = scratch.deflater;
+        deflater.reset();
+        deflater.setInput(raw, 0, rowBytes * outputSize);
+        deflater.finish();
+        byte[] compressed = scratch.compressed(rowBytes * outputSize / 2 + 64);
+        int compressedLength = 0;
+        while (!deflater.finished()) {
+            if (compressedLength == compressed.length) {
+                compressed = scratch.growCompressed();
+            }
+            compressedLength += deflater.deflate(compressed, compressedLength, compressed.length - compressedLength);
+        }
+
+        byte[] png = new byte[PNG_SIGNATURE.length + (12 + 13) + (12 + compressedLength) + 12];
+        int pos = 0;
+        System.arraycopy(PNG_SIGNATURE, 0, png, pos, PNG_SIGNATURE.length);
+        pos += PNG_SIGNATURE.length;
+
+        byte[] header = scratch.header;
+        writeInt(header, 0, outputSize);
+        writeInt(header, 4, outputSize);
+        header[8] = 1;  // bit depth
+        header[9] = 0;  // colour type: grayscale
+        header[10] = 0; // compression
+        header[11] = 0; // filter
+        header[12] = 0; // interlace
+        pos = writeChunk(png, pos, IHDR, header, 13, scratch.crc);
+        pos = writeChunk(png, pos, IDAT, compressed, compressedLength, scratch.crc);
+        writeChunk(png, pos, IEND, header, 0, scratch.crc);
+        return png;
+    }
+
+    /**
+     * Renders {@code text} as an SVG document scaled to {@code size} pixels.
+     * Dark modules are merged into horizontal runs in a single path.
+     */
+    public String renderSvg(String text, int size) throws WriterException {
+        ByteMatrix matrix = encode(text);
+        int modules = matrix.getWidth();
+        int qrWidth = modules + QUIET_ZONE * 2;
+
+        StringBuilder svg = new StringBuilder(256 + modules * modules * 2);
+        svg.append("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"").append(size)
+                .append("\" height=\"").append(size)
+                .append("\" viewBox=\"0 0 ").append(qrWidth).append(' ').append(qrWidth)
+                .append("\" shape-rendering=\"crispEdges\">")
+                .append("<rect width=\"100%\" height=\"100%\" fill=\"#fff\"/>")
+                .append("<path fill=\"#000\" d=\"");
+        for (int y = 0; y < modules; y++) {
+            int x = 0;
+            while (x < modules) {
+                if (matrix.get(x, y) != 1) {
+                    x++;
+                    continue;
+                }
+                int start = x;
+                while (x < modules && matrix.get(x, y) == 1) {
+                    x++;
+                }
+                svg.append('M').append(start + QUIET_ZONE).append(' ').append(y + QUIET_ZONE)
+                        .append('h').append(x - start).append("v1h-").append(x - start).append('z');
+            }
+        }
+        svg.append("\"/></svg>");
+        return svg.toString();
+    }
+
+    private static ByteMatrix encode(String text) throws WriterException {
+        // Same defaults as QRCodeWriter: error correction level L, no hints
+        return Encoder.encode(text, ErrorCorrectionLevel.L).getMatrix();
+    }
+
+    private static void clearTrailingBits(byte[] row, int width) {
+        // Padding bits after the last pixel are irrelevant but keep them zero
+        int used = width & 7;
+        if (used != 0) {
+            row[row.length - 1] &= (byte) (0xFF << (8 - used));
+        }
+    }
+
+    private static int writeChunk(byte[] out, int pos, byte[] type, byte[] data, int length, CRC32 crc) {
+        writeInt(out, pos, length);
+        pos += 4;
+        System.arraycopy(type, 0, out, pos, 4);
+        System.arraycopy(data, 0, out, pos + 4, length);
+        crc.reset();
+        crc.update(out, pos, 4 + length);
+        pos += 4 + length;
+        writeInt(out, pos, (int) crc.getValue());
+        return pos + 4;
+    }
+
+    private static void writeInt(byte[] out, int pos, int value) {
+        out[pos] = (byte) (value >>> 24);
+        out[pos + 1] = (byte) (value >>> 16);
+        out[pos + 2] = (byte) (value >>> 8);
+        out[pos + 3] = (byte) value;
+    }
+
+    /** Per-thread reusable buffers. Only the final PNG array is allocated per call. */
+    private static final class Scratch {
+        final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        final CRC32 crc = new CRC32();
+        final byte[] header = new byte[13];
+        private byte[] raw = new byte[0];
+        private byte[] row = new byte[0];
+        private byte[] compressed = new byte[0];
+
+        byte[] raw(int length) {
+            if (raw.length < length) {
+                raw = new byte[length];
+            }
+            return raw;
+        }
+
+        byte[] row(int length) {
+            if (row.length != length) {
+                row = new byte[length];
+            }
+            return row;
+        }
+
+        byte[] compressed(int minLength) {
+            if (compressed.length < minLength) {
+                compressed = new byte[minLength];
+            }
+            return compressed;
+        }
+
+        byte[] growCompressed() {
+            compressed = Arrays.copyOf(compressed, compressed.length * 2);
+            return compressed;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.bookfair.system.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.google.zxing.WriterException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renders reservation QR codes. Shared by the booking confirmation mail and
+ * the vendor reservation listing.
+ *
+ * Reservation tokens are immutable, so rendered PNGs are cached by token in a
+ * bounded in-memory cache (evicted by total byte size). The image rendered for
+ * the confirmation mail is the one later served by "My Reservations".
+ *
+ * The image URLs are public (usable from an img tag) but carry an HMAC of the
+ * token, so they cannot be built for guessed codes.
+ */
+@Service
+public class QrCodeService {
+
+    private static final int SIZE = 250;
+
+    /** Bump whenever the rendered output changes so cached ETags are invalidated. */
+    private static final String RENDER_VERSION = "v2";
+
+    private final QrCodeRenderer renderer;
+    private final SecretKeySpec urlKey;
+    private final Cache<String, byte[]> pngCache;
+    private final Timer pngTimer;
+    private final Timer svgTimer;
+
+    public QrCodeService(QrCodeRenderer renderer,
+            MeterRegistry meterRegistry,
+            @Value("${app.qr.cache.max-bytes:33554432}") long maxCacheBytes,
+            @Value("${app.qr.url-secret:${app.jwtSecret}}") String urlSecret) {
+        this.renderer = renderer;
+        this.urlKey = new SecretKeySpec(urlSecret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+        this.pngCache = Caffeine.newBuilder()
+                .maximumWeight(maxCacheBytes)
+                .weigher((String token, byte[] png) -> png.length)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, pngCache, "qr.png");
+        this.pngTimer = renderTimer(meterRegistry, "png");
+        this.svgTimer = renderTimer(meterRegistry, "svg");
+    }
+
+    private static Timer renderTimer(MeterRegistry registry, String format) {
+        return Timer.builder("qr.render")
+                .description("QR code rendering (cache misses only for PNG)")
+                .tag("format", format)
+                .register(registry);
+    }
+
+    /** Returns the PNG for {@code token}, rendering it on first use. */
+    public byte[] getPng(String token) {
+        return pngCache.get(token, this::renderPng);
+    }
+
+    public String getBase64Png(String token) {
+        return Base64.getEncoder().encodeToString(getPng(token));
+    }
+
+    /** Vector rendering of the same QR code; cheap enough not to cache. */
+    public String getSvg(String token) {
+        long start = System.nanoTime();
+        try {
+            return renderer.renderSvg(token, SIZE);
+        } catch (WriterException e) {
+            throw new IllegalStateException("Failed to render QR code for " + token, e);
+        } finally {
+            svgTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Strong ETag for the PNG of {@code token}. The image is a pure function of
+     * the token and the renderer version, so no rendering is needed to answer
+     * a conditional request.
+     */
+    public String etag(String token) {
+        return "\"" + token + "-" + RENDER_VERSION + "\"";
+    }
+
+    /** URL-safe signature of {@code token}, carried as {@code ?sig=} on the QR image URLs. */
+    public String sign(String token) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(urlKey);
+            byte[] digest = mac.doFinal(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, 16));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+
+    /** Constant-time check of a {@code ?sig=} value against {@link #sign}. */
+    public boolean isValidSignature(String token, String signature) {
+        return signature != null && MessageDigest.isEqual(
+                sign(token).getBytes(StandardCharsets.US_ASCII),
+                signature.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /** Hit/miss/eviction counters for the rendered-image cache. */
+    public CacheStats cacheStats() {
+        return pngCache.stats();
+    }
+
+    public long cachedImageCount() {
+        return pngCache.estimatedSize();
+    }
+
+    private byte[] renderPng(String text) {
+        long start = System.nanoTime();
+        try {
+            return renderer.renderPng(text, SIZE);
+        } catch (WriterException e) {
+            throw new IllegalStateException("Failed to render QR code for " + text, e);
+        } finally {
+            pngTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
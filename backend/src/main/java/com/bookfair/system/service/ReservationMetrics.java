@@ -0,0 +1,79 @@
+package com.bookfair.system.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timers for the booking path. Each phase of createReservation is recorded
+ * under {@code reservation.create.phase} (tag {@code phase}); the whole call
+ * under {@code reservation.create} (tag {@code outcome}). Percentiles and
+ * histograms are configured in application.properties.
+ */
+@Component
+public class ReservationMetrics {
+
+    public static final String PHASE_VALIDATE = "validate";
+    public static final String PHASE_CLAIM = "claim";
+    public static final String PHASE_PERSIST = "persist";
+    public static final String PHASE_MAIL_ENQUEUE = "mail_enqueue";
+
+    private final MeterRegistry registry;
+    private final Timer validate;
+    private final Timer claim;
+    private final Timer persist;
+    private final Timer mailEnqueue;
+
+    public ReservationMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.validate = phaseTimer(PHASE_VALIDATE);
+        this.claim = phaseTimer(PHASE_CLAIM);
+        this.persist = phaseTimer(PHASE_PERSIST);
+        this.mailEnqueue = phaseTimer(PHASE_MAIL_ENQUEUE);
+    }
+
+    /** Starts timing one booking; not thread-safe, use from the booking thread only. */
+    public Booking start() {
+        return new Booking();
+    }
+
+    private Timer phaseTimer(String phase) {
+        return Timer.builder("reservation.create.phase")
+                .description("Time spent in each phase of createReservation")
+                .tag("phase", phase)
+                .register(registry);
+    }
+
+    private Timer phase(String name) {
+        return switch (name) {
+            case PHASE_VALIDATE -> validate;
+            case PHASE_CLAIM -> claim;
+            case PHASE_PERSIST -> persist;
+            case PHASE_MAIL_ENQUEUE -> mailEnqueue;
+            default -> throw new IllegalArgumentException("Unknown phase: " + name);
+        };
+    }
+
+    public final class Booking {
+        private final long startNanos = System.nanoTime();
+        private long phaseStartNanos = startNanos;
+
+        /** Records the time since the previous mark (or the start) as {@code phase}. */
+        public void mark(String phase) {
+            long now = System.nanoTime();
+            phase(phase).record(now - phaseStartNanos, TimeUnit.NANOSECONDS);
+            phaseStartNanos = now;
+        }
+
+        /** Records the whole call; outcome is e.g. success, unavailable or error. */
+        public void finish(String outcome) {
+            Timer.builder("reservation.create")
+                    .description("createReservation, excluding the commit")
+                    .tag("outcome", outcome)
+                    .register(registry)
+                    .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -4,21 +4,27 @@ import com.bookfair.system.dto.request.ReservationRequest;
 import com.bookfair.system.dto.response.AdminReservationResponse;
 import com.bookfair.system.dto.response.ReservationResponse;
 import com.bookfair.system.entity.*;
+import com.bookfair.system.event.ReservationConfirmedEvent;
+import com.bookfair.system.event.StallsChangedEvent;
+import com.bookfair.system.exception.StallUnavailableException;
 import com.bookfair.system.repository.*;
-import com.google.zxing.BarcodeFormat;
-import com.google.zxing.client.j2se.MatrixToImageWriter;
-import com.google.zxing.common.BitMatrix;
-import com.google.zxing.qrcode.QRCodeWriter;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.io.ByteArrayOutputStream;
-import java.util.Base64;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class ReservationService {
@@ -28,22 +34,58 @@ public class ReservationService {
     private final StallRepository stallRepository;
     private final UserRepository userRepository;
     private final PaymentRepository paymentRepository;
-    private final EmailService emailService;
+    private final QrCodeService qrCodeService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ReservationMetrics reservationMetrics;
 
     @Transactional
     public ReservationResponse createReservation(Long userId, ReservationRequest request) {
+        ReservationMetrics.Booking timer = reservationMetrics.start();
+        try {
+            ReservationResponse response = createReservation(userId, request, timer);
+            timer.finish("success");
+            return response;
+        } catch (StallUnavailableException e) {
+            timer.finish("unavailable");
+            throw e;
+        } catch (RuntimeException e) {
+            timer.finish("error");
+            throw e;
+        }
+    }
 
-        // 1. Validate User
-        User user = userRepository.findById(userId)
+    private ReservationResponse createReservation(Long userId, ReservationRequest request,
+            ReservationMetrics.Booking timer) {
+
+        // 1. Validate User (row lock serialises concurrent bookings by the same vendor)
+        User user = userRepository.findByIdForUpdate(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
+        // Sorted + de-duplicated so every claim touches rows in the same order
+        List<Long> stallIds = request.getStallIds().stream()
+                .distinct()
+                .sorted()
+                .collect(Collectors.toList());
+
         // 2. Validate Limit (Max 3 stalls)
         long currentBookings = reservationStallRepository.countStallsByUserId(userId);
-        if (currentBookings + request.getStallIds().size() > 3) {
+        if (currentBookings + stallIds.size() > 3) {
             throw new RuntimeException("Limit Exceeded: You can only reserve up to 3 stalls per business.");
         }
+        timer.mark(ReservationMetrics.PHASE_VALIDATE);
+
+        // 3. Claim the stalls in a single conditional UPDATE. Anything short of a
+        // full claim means another vendor got there first; the exception reports
+        // the stalls that were not claimed and rolls back the partial claim.
+        List<Long> claimed = stallRepository.claimAvailable(stallIds);
+        if (claimed.size() != stallIds.size()) {
+            List<Long> unavailable = new ArrayList<>(stallIds);
+            unavailable.removeAll(claimed);
+            throw new StallUnavailableException(unavailable);
+        }
+        timer.mark(ReservationMetrics.PHASE_CLAIM);
 
-        // 3. Set Status (Matches your DB Constraints: PENDING, CONFIRMED)
+        // 4. Set Status (Matches your DB Constraints: PENDING, CONFIRMED)
         String reservationStatus = "CONFIRMED";
         String paymentStatus = "PAID";
 
@@ -52,7 +94,7 @@ public class ReservationService {
             paymentStatus = "PENDING";
         }
 
-        // 4. Create Reservation Object
+        // 5. Create Reservation Object
         String qrToken = "RES-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
 
         Reservation reservation = Reservation.builder()
@@ -63,31 +105,21 @@ public class ReservationService {
 
         Reservation savedReservation = reservationRepository.save(reservation);
 
-        // 5. Process Stalls
-        List<Stall> stalls = stallRepository.findAllById(request.getStallIds());
+        // 6. Link Stalls to Reservation
+        List<Stall> stalls = stallRepository.findAllById(stallIds);
         double calculatedTotal = 0.0;
 
+        List<ReservationStall> links = new ArrayList<>(stalls.size());
         for (Stall stall : stalls) {
-            // SAFE CHECK: Only check the boolean flag on the Stall entity
-            if (stall.isReserved()) {
-                throw new RuntimeException("Stall " + stall.getStallCode() + " is already reserved!");
-            }
-
-            // Link Stall to Reservation
-            reservationStallRepository.save(
-                    ReservationStall.builder()
-                            .reservation(savedReservation)
-                            .stall(stall)
-                            .build());
-
-            // LOCK THE STALL
-            stall.setReserved(true);
-            stallRepository.save(stall);
-
+            links.add(ReservationStall.builder()
+                    .reservation(savedReservation)
+                    .stall(stall)
+                    .build());
             calculatedTotal += stall.getPrice();
         }
+        reservationStallRepository.saveAll(links);
 
-        // 6. Create Payment Record
+        // 7. Create Payment Record
         Payment payment = new Payment();
         payment.setReservation(savedReservation);
         payment.setAmount(calculatedTotal);
@@ -95,69 +127,75 @@ public class ReservationService {
         payment.setPaymentStatus(paymentStatus);
 
         paymentRepository.save(payment);
-
-        // 7. Generate QR & Send Email
-        try {
-            String qrImageBase64 = generateQRCodeImage(qrToken);
-            String stallDetails = stalls.stream()
-                    .map(s -> s.getStallCode() + " (" + s.getSize() + ")")
-                    .collect(Collectors.joining(", "));
-
-            emailService.sendReservationEmail(
-                    user.getEmail(),
-                    user.getName(),
-                    user.getContactNumber() != null ? user.getContactNumber() : "N/A",
-                    paymentStatus,
-                    qrImageBase64,
-                    stallDetails);
-
-            return ReservationResponse.builder()
-                    .reservationCode(qrToken)
-                    .qrCodeImage(qrImageBase64)
-                    .message("Booking Successful!")
-                    .build();
-
-        } catch (Exception e) {
-            System.err.println("QR/Email Error: " + e.getMessage());
-            return ReservationResponse.builder()
-                    .reservationCode(qrToken)
-                    .message("Booking Success (Email Failed)")
-                    .build();
-        }
+        timer.mark(ReservationMetrics.PHASE_PERSIST);
+
+        // 8. Queue the confirmation mail (same transaction) and announce the stall changes
+        String stallDetails = stalls.stream()
+                .map(s -> s.getStallCode() + " (" + s.getSize() + ")")
+                .collect(Collectors.joining(", "));
+
+        eventPublisher.publishEvent(new StallsChangedEvent(stallIds));
+        eventPublisher.publishEvent(new ReservationConfirmedEvent(
+                qrToken,
+                user.getEmail(),
+                user.getName(),
+                user.getContactNumber() != null ? user.getContactNumber() : "N/A",
+                paymentStatus,
+                stallDetails));
+        timer.mark(ReservationMetrics.PHASE_MAIL_ENQUEUE);
+
+        return ReservationResponse.builder()
+                .reservationCode(qrToken)
+                .qrCodeUrl(qrCodeUrl(qrToken))
+                .message("Booking Successful!")
+                .build();
     }
 
-    private String generateQRCodeImage(String text) throws Exception {
-        QRCodeWriter qrCodeWriter = new QRCodeWriter();
-        BitMatrix bitMatrix = qrCodeWriter.encode(text, BarcodeFormat.QR_CODE, 250, 250);
-        ByteArrayOutputStream pngOutputStream = new ByteArrayOutputStream();
-        MatrixToImageWriter.writeToStream(bitMatrix, "PNG", pngOutputStream);
-        return Base64.getEncoder().encodeToString(pngOutputStream.toByteArray());
+    @Transactional(readOnly = true)
+    public List<AdminReservationResponse> getAllReservations() {
+        return searchReservations(null, null, null, null, Pageable.unpaged()).getContent();
     }
 
+    /**
+     * Admin listing. One query for the (filtered, paged) base reservations and
+     * one for their stall links, grouped by reservation id in a hash map, so
+     * the work is linear in the number of rows. Cancelled stalls are listed as
+     * CANCELLED under the reservation they were booked with.
+     */
     @Transactional(readOnly = true)
-    public List<AdminReservationResponse> getAllReservations() {
-        List<Reservation> baseReservations = reservationRepository.findAllBaseReservationsWithUser();
-        List<ReservationStall> allStalls = reservationStallRepository.findAllWithStallsAndReservations();
-
-        return baseReservations.stream().map(r -> {
-            String baseToken = r.getQrCodeToken();
-            List<AdminReservationResponse.StallDetail> stallDetails = allStalls.stream()
-                    .filter(rs -> rs.getReservation().getQrCodeToken().startsWith(baseToken))
-                    .map(rs -> new AdminReservationResponse.StallDetail(
-                            rs.getStall().getId(),
-                            rs.getStall().getStallCode(),
-                            rs.getReservation().getStatus()))
-                    .collect(Collectors.toList());
-
-            return new AdminReservationResponse(
-                    r.getId(),
-                    r.getUser().getEmail(),
-                    r.getUser().getName(),
-                    r.getReservationDate(),
-                    baseToken,
-                    r.getStatus(),
-                    stallDetails);
-        }).collect(Collectors.toList());
+    public Page<AdminReservationResponse> searchReservations(String status, Long floorId,
+            LocalDateTime from, LocalDateTime to, Pageable pageable) {
+        Page<Reservation> baseReservations = reservationRepository.searchBaseReservationsWithUser(
+                status, floorId, from, to, pageable);
+
+        List<ReservationStall> links;
+        if (pageable.isUnpaged()) {
+            links = reservationStallRepository.findAllWithStallsAndReservations();
+        } else if (baseReservations.isEmpty()) {
+            links = List.of();
+        } else {
+            List<Long> reservationIds = baseReservations.stream().map(Reservation::getId).toList();
+            links = reservationStallRepository.findAllWithStallsByReservationIdIn(reservationIds);
+        }
+
+        Map<Long, List<ReservationStall>> linksByReservation = new HashMap<>();
+        for (ReservationStall rs : links) {
+            linksByReservation.computeIfAbsent(rs.getReservation().getId(), k -> new ArrayList<>()).add(rs);
+        }
+
+        return baseReservations.map(r -> new AdminReservationResponse(
+                r.getId(),
+                r.getUser().getEmail(),
+                r.getUser().getName(),
+                r.getReservationDate(),
+                r.getQrCodeToken(),
+                r.getStatus(),
+                linksByReservation.getOrDefault(r.getId(), List.of()).stream()
+                        .map(rs -> new AdminReservationResponse.StallDetail(
+                                rs.getStall().getId(),
+                                rs.getStall().getStallCode(),
+                                rs.getCancelledAt() != null ? "CANCELLED" : r.getStatus()))
+                        .toList()));
     }
 
     @Transactional
@@ -166,6 +204,10 @@ public class ReservationService {
         Reservation reservation = reservationRepository.findByIdWithUser(id)
                 .orElseThrow(() -> new RuntimeException("Reservation not found with id: " + id));
         reservation.setStatus(status);
+        if ("CANCELLED".equals(status)) {
+            // Keeps "cancelled_at IS NULL" meaning an active link
+            reservationStallRepository.cancelActiveByReservationId(id, LocalDateTime.now());
+        }
         Reservation saved = reservationRepository.save(reservation);
         return new AdminReservationResponse(
                 saved.getId(),
@@ -181,22 +223,27 @@ public class ReservationService {
         return reservationStallRepository.countStallsByUserId(userId);
     }
 
+    /**
+     * Lists the vendor's active stalls. The QR pass is referenced by URL; the
+     * Base64 PNG is only inlined when {@code inlineQr} is set.
+     */
     @Transactional(readOnly = true)
-    public List<ReservationResponse> getUserReservations(Long userId) {
+    public List<ReservationResponse> getUserReservations(Long userId, boolean inlineQr) {
         List<ReservationStall> reservationStalls = reservationStallRepository.findAllByReservationUserId(userId);
 
         return reservationStalls.stream().map(rs -> {
             Stall stall = rs.getStall();
             Reservation reservation = rs.getReservation();
             String code = reservation.getQrCodeToken();
-            if (code.contains("-C-"))
-                code = code.substring(0, code.indexOf("-C-"));
 
             String qrCodeImage = null;
-            try {
-                qrCodeImage = generateQRCodeImage(code);
-            } catch (Exception e) {
-                e.printStackTrace();
+            if (inlineQr) {
+                try {
+                    qrCodeImage = qrCodeService.getBase64Png(code);
+                } catch (RuntimeException e) {
+                    // The response still carries qrCodeUrl, so the client can fetch the image instead
+                    log.warn("Could not inline QR image for reservation {}", reservation.getId(), e);
+                }
             }
 
             return ReservationResponse.builder()
@@ -206,39 +253,43 @@ public class ReservationService {
                     .price(stall.getPrice())
                     .floorName(stall.getFloor().getFloorName())
                     .reservationCode(code)
+                    .qrCodeUrl(qrCodeUrl(code))
                     .qrCodeImage(qrCodeImage)
                     .status(reservation.getStatus())
                     .build();
         }).collect(Collectors.toList());
     }
 
+    /** True if {@code code} is a reservation token issued by this system. */
+    public boolean isKnownReservationCode(String code) {
+        return reservationRepository.existsByQrCodeToken(code);
+    }
+
+    private String qrCodeUrl(String code) {
+        return "/api/vendor-publishers/reservations/" + code + "/qr.png?sig=" + qrCodeService.sign(code);
+    }
+
     @Transactional
     public void cancelStallReservation(Long userId, Long stallId) {
+        // Same user row lock as createReservation: a vendor's bookings and cancellations run one at a time
+        userRepository.findByIdForUpdate(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
         ReservationStall reservationStall = reservationStallRepository.findActiveByUserIdAndStallId(userId, stallId)
                 .orElseThrow(() -> new RuntimeException("Active reservation not found for this stall"));
 
         Stall stall = reservationStall.getStall();
-        if (stall.isReserved()) {
-            stall.setReserved(false);
-            stallRepository.save(stall);
-        }
+        stallRepository.release(stall.getId());
+        eventPublisher.publishEvent(new StallsChangedEvent(List.of(stall.getId())));
 
-        Reservation originalReservation = reservationStall.getReservation();
-        long remainingStalls = reservationStallRepository.countByReservationId(originalReservation.getId());
+        // The link stays on its reservation as history; the reservation ends with its last stall
+        reservationStall.setCancelledAt(LocalDateTime.now());
+        reservationStallRepository.save(reservationStall);
 
-        if (remainingStalls <= 1) {
-            originalReservation.setStatus("CANCELLED");
-            reservationRepository.save(originalReservation);
-        } else {
-            Reservation cancelledRes = new Reservation();
-            cancelledRes.setUser(originalReservation.getUser());
-            cancelledRes.setReservationDate(originalReservation.getReservationDate());
-            cancelledRes.setStatus("CANCELLED");
-            cancelledRes.setQrCodeToken(originalReservation.getQrCodeToken() + "-C-" + stall.getId());
-            reservationRepository.save(cancelledRes);
-
-            reservationStall.setReservation(cancelledRes);
-            reservationStallRepository.save(reservationStall);
+        Reservation reservation = reservationStall.getReservation();
+        if (reservationStallRepository.countActiveByReservationId(reservation.getId()) == 0) {
+            reservation.setStatus("CANCELLED");
+            reservationRepository.save(reservation);
         }
     }
 }
\ No newline at end of file
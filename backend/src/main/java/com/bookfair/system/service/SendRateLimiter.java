@@ -0,0 +1,35 @@
+package com.bookfair.system.service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Smooth rate limiter shared by the SMTP senders: callers reserve permits and
+ * sleep until their slot. A rate of zero or less disables limiting.
+ */
+final class SendRateLimiter {
+
+    private final long intervalNanos;
+    private long nextFreeNanos = System.nanoTime();
+
+    SendRateLimiter(double permitsPerSecond) {
+        this.intervalNanos = permitsPerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond) : 0;
+    }
+
+    /** Blocks until {@code permits} more sends fit within the rate. */
+    void acquire(int permits) throws InterruptedException {
+        long waitNanos = reserve(permits);
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    private synchronized long reserve(int permits) {
+        if (intervalNanos == 0) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        long start = Math.max(now, nextFreeNanos);
+        nextFreeNanos = start + permits * intervalNanos;
+        return start - now;
+    }
+}
@@ -0,0 +1,259 @@
+package com.bookfair.system.service;
+
+import com.bookfair.system.dto.response.StallChangesResponse;
+import com.bookfair.system.event.StallsChangedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Server-Sent Events fan-out for live stall availability.
+ *
+ * Idle connections cost only an {@link SseEmitter} and a small queue (no
+ * thread is parked per client). Committed stall changes are coalesced on a
+ * single dispatcher thread, turned into one delta from the availability
+ * snapshot and offered to every subscriber's bounded queue. A small send pool
+ * drains each queue; a client whose queue overflows is disconnected and
+ * resumes from its Last-Event-ID on reconnect, so slow readers never hold up
+ * the others.
+ *
+ * A send to a client that stopped reading blocks in the socket write until
+ * the connector's write timeout (server.tomcat.connection-timeout) fails it.
+ * Emitters are therefore only ever completed from the send pool: completing
+ * takes the same lock as a blocked send, and the dispatcher must not wait on
+ * it.
+ */
+@Slf4j
+@Service
+public class StallEventBroadcaster {
+
+    private static final String EVENT_NAME = "changes";
+    private static final int SUBSCRIBER_QUEUE_CAPACITY = 16;
+
+    private final StallSnapshotService stallSnapshotService;
+    private final int maxConnections;
+    private final long emitterTimeoutMs;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger connectionCount = new AtomicInteger();
+    private final AtomicBoolean broadcastPending = new AtomicBoolean();
+    private final ScheduledExecutorService dispatcher;
+    private final ExecutorService sendPool;
+
+    /** Snapshot version last pushed to subscribers; 0 when there is no baseline yet. */
+    private volatile long lastBroadcastVersion;
+
+    public StallEventBroadcaster(StallSnapshotService stallSnapshotService,
+            MeterRegistry meterRegistry,
+            @Value("${app.sse.max-connections:5000}") int maxConnections,
+            @Value("${app.sse.timeout-ms:1800000}") long emitterTimeoutMs,
+            @Value("${app.sse.heartbeat-seconds:20}") long heartbeatSeconds,
+            @Value("${app.sse.send-threads:4}") int sendThreads) {
+        this.stallSnapshotService = stallSnapshotService;
+        this.maxConnections = maxConnections;
+        this.emitterTimeoutMs = emitterTimeoutMs;
+        this.dispatcher = Executors.newSingleThreadScheduledExecutor(r -> daemon(r, "stall-sse-dispatch"));
+        this.sendPool = Executors.newFixedThreadPool(sendThreads, r -> daemon(r, "stall-sse-send"));
+        this.dispatcher.scheduleAtFixedRate(this::heartbeat, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+        new ExecutorServiceMetrics(sendPool, "stall.sse.send", Tags.empty()).bindTo(meterRegistry);
+        Gauge.builder("stall.sse.connections", connectionCount, AtomicInteger::get).register(meterRegistry);
+    }
+
+    /**
+     * Registers a new stream. Returns null when the connection limit is reached.
+     * A reconnecting client passes its Last-Event-ID and first receives the
+     * changes it missed; a new client receives the full list.
+     *
+     * The initial event is built and queued on the dispatcher thread, and only
+     * then is the subscriber added to the broadcast set. Broadcasts run on the
+     * same thread, so no delta can be queued ahead of the initial event and
+     * none committed after it is missed.
+     */
+    public SseEmitter subscribe(Long lastEventId) {
+        if (connectionCount.incrementAndGet() > maxConnections) {
+            connectionCount.decrementAndGet();
+            return null;
+        }
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+        dispatcher.execute(() -> register(subscriber, lastEventId != null ? lastEventId : 0));
+        return emitter;
+    }
+
+    private void register(Subscriber subscriber, long since) {
+        try {
+            StallChangesResponse initial = stallSnapshotService.getChangesSince(since);
+            if (lastBroadcastVersion == 0) {
+                lastBroadcastVersion = initial.getVersion();
+            }
+            subscriber.offer(changesEvent(initial));
+        } catch (RuntimeException e) {
+            log.error("Stall SSE subscribe failed: {}", e.getMessage());
+            remove(subscriber);
+            sendPool.execute(() -> subscriber.emitter.completeWithError(e));
+            return;
+        }
+        subscribers.add(subscriber);
+        if (subscriber.released.get()) {
+            // Disconnected while the initial event was being prepared
+            subscribers.remove(subscriber);
+        }
+    }
+
+    public int getConnectionCount() {
+        return connectionCount.get();
+    }
+
+    @Order(1) // after StallSnapshotService has marked the stalls dirty
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onStallsChanged(StallsChangedEvent event) {
+        // Coalesce bursts: at most one broadcast is queued at a time
+        if (broadcastPending.compareAndSet(false, true)) {
+            dispatcher.execute(this::broadcast);
+        }
+    }
+
+    private void broadcast() {
+        broadcastPending.set(false);
+        if (subscribers.isEmpty()) {
+            // Nobody to tell; the next subscriber starts from a fresh baseline
+            lastBroadcastVersion = 0;
+            return;
+        }
+        try {
+            long since = lastBroadcastVersion;
+            StallChangesResponse changes = stallSnapshotService.getChangesSince(since);
+            if (!changes.isFull() && changes.getStalls().isEmpty() && changes.getRemoved().isEmpty()) {
+                return;
+            }
+            lastBroadcastVersion = changes.getVersion();
+            Set<ResponseBodyEmitter.DataWithMediaType> event = changesEvent(changes);
+            for (Subscriber subscriber : subscribers) {
+                subscriber.offer(event);
+            }
+        } catch (RuntimeException e) {
+            log.error("Stall SSE broadcast failed: {}", e.getMessage());
+        }
+    }
+
+    private void heartbeat() {
+        Set<ResponseBodyEmitter.DataWithMediaType> ping = SseEmitter.event().comment("ping").build();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(ping);
+        }
+    }
+
+    /** Built once and shared by all subscribers (an SseEventBuilder must not be built twice). */
+    private Set<ResponseBodyEmitter.DataWithMediaType> changesEvent(StallChangesResponse changes) {
+        return SseEmitter.event()
+                .id(String.valueOf(changes.getVersion()))
+                .name(EVENT_NAME)
+                .data(changes, MediaType.APPLICATION_JSON)
+                .build();
+    }
+
+    private void remove(Subscriber subscriber) {
+        subscribers.remove(subscriber);
+        if (subscriber.released.compareAndSet(false, true)) {
+            connectionCount.decrementAndGet();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+        sendPool.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter.complete();
+        }
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    /** One connection: a bounded outbound queue drained by at most one send task at a time. */
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final Queue<Set<ResponseBodyEmitter.DataWithMediaType>> queue =
+                new ArrayBlockingQueue<>(SUBSCRIBER_QUEUE_CAPACITY);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        /** Set once the connection slot has been given back. */
+        private final AtomicBoolean released = new AtomicBoolean();
+        private volatile boolean closed;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void offer(Set<ResponseBodyEmitter.DataWithMediaType> event) {
+            if (closed) {
+                return;
+            }
+            if (!queue.offer(event)) {
+                // Too slow to keep up: drop it, the client resumes from Last-Event-ID.
+                // A send may be blocked on this client right now, so the drain
+                // task completes the emitter once it gets the thread back.
+                closed = true;
+                remove(this);
+            }
+            if (draining.compareAndSet(false, true)) {
+                sendPool.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                Set<ResponseBodyEmitter.DataWithMediaType> event;
+                while (!closed && (event = queue.poll()) != null) {
+                    emitter.send(event);
+                }
+                if (closed) {
+                    queue.clear();
+                    emitter.complete();
+                    return;
+                }
+            } catch (IOException | IllegalStateException e) {
+                closed = true;
+                remove(this);
+                queue.clear();
+                emitter.completeWithError(e);
+                return;
+            } finally {
+                draining.set(false);
+            }
+            // An event may have arrived between the last poll and releasing the flag
+            if (!queue.isEmpty() && draining.compareAndSet(false, true)) {
+                sendPool.execute(this::drain);
+            }
+        }
+    }
+}
@@ -1,19 +1,27 @@
 package com.bookfair.system.service;
 
 import com.bookfair.system.dto.response.StallAvailabilityResponse;
-import com.bookfair.system.entity.Reservation;
-import com.bookfair.system.entity.ReservationStall;
+import com.bookfair.system.entity.Floor;
 import com.bookfair.system.entity.Stall;
-import com.bookfair.system.entity.User;
-import com.bookfair.system.repository.ReservationStallRepository;
+import com.bookfair.system.entity.StallType;
+import com.bookfair.system.event.StallsChangedEvent;
+import com.bookfair.system.repository.FloorRepository;
 import com.bookfair.system.repository.StallRepository;
+import com.bookfair.system.repository.StallTypeRepository;
 import com.bookfair.system.repository.UserRepository;
+import com.bookfair.system.repository.projection.StallAvailabilityRow;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -21,8 +29,10 @@ import java.util.stream.Collectors;
 public class StallService {
 
     private final StallRepository stallRepository;
-    private final ReservationStallRepository reservationStallRepository;
+    private final FloorRepository floorRepository;
+    private final StallTypeRepository stallTypeRepository;
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     // ─── Existing CRUD (kept for backward compatibility) ───────
 
@@ -36,7 +46,11 @@ public class StallService {
 
     @Transactional
     public Stall createStall(Stall stall) {
-        return stallRepository.save(stall);
+        stall.setFloor(resolveFloor(stall.getFloor()));
+        stall.setStallType(resolveStallType(stall.getStallType()));
+        Stall saved = stallRepository.save(stall);
+        eventPublisher.publishEvent(new StallsChangedEvent(List.of(saved.getId())));
+        return saved;
     }
 
     @Transactional
@@ -44,57 +58,91 @@ public class StallService {
         Stall stall = stallRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Stall not found with id: " + id));
         stall.setStallCode(stallDetails.getStallCode());
-        stall.setStallType(stallDetails.getStallType());
-        stall.setFloor(stallDetails.getFloor());
+        stall.setStallType(resolveStallType(stallDetails.getStallType()));
+        stall.setFloor(resolveFloor(stallDetails.getFloor()));
+        eventPublisher.publishEvent(new StallsChangedEvent(List.of(id)));
         return stallRepository.save(stall);
     }
 
+    /*
+     * The request body only carries {"id": n} for floor and stall type; swap in
+     * the real rows (second-level cached) so the saved stall has size and price.
+     */
+    private Floor resolveFloor(Floor floor) {
+        Long id = floor != null ? floor.getId() : null;
+        return floorRepository.findById(Objects.requireNonNull(id, "Floor id is required"))
+                .orElseThrow(() -> new RuntimeException("Floor not found with id: " + id));
+    }
+
+    private StallType resolveStallType(StallType stallType) {
+        Long id = stallType != null ? stallType.getId() : null;
+        return stallTypeRepository.findById(Objects.requireNonNull(id, "Stall type id is required"))
+                .orElseThrow(() -> new RuntimeException("Stall type not found with id: " + id));
+    }
+
     @Transactional
     public void deleteStall(Long id) {
         Stall stall = stallRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Stall not found with id: " + id));
         stallRepository.delete(stall);
+        eventPublisher.publishEvent(new StallsChangedEvent(List.of(id)));
     }
 
     // ─── Availability view ────────────────────────────────────
 
     /**
      * Returns a rich list of all stalls with vendor details when reserved.
-     * Stall + StallType + Floor are EAGER so no lazy-load risk here.
-     * Vendor info is fetched only for reserved stalls via findActiveByStallId.
+     * Served by two statements regardless of hall size: one join for
+     * stall/floor/type/active reservation/vendor and one batched genre lookup.
      */
     @Transactional(readOnly = true)
     public List<StallAvailabilityResponse> getStallAvailability() {
-        return stallRepository.findAllWithFloors().stream()
-                .map(this::toAvailabilityResponse)
+        List<StallAvailabilityRow> rows = stallRepository.findAvailabilityRows();
+
+        Set<Long> vendorIds = rows.stream()
+                .map(StallAvailabilityRow::vendorId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, List<String>> genresByVendor = new HashMap<>();
+        if (!vendorIds.isEmpty()) {
+            for (Object[] pair : userRepository.findGenresByUserIds(vendorIds)) {
+                genresByVendor.computeIfAbsent((Long) pair[0], k -> new ArrayList<>()).add((String) pair[1]);
+            }
+        }
+
+        return rows.stream()
+                .map(row -> toAvailabilityResponse(row, genresByVendor))
                 .collect(Collectors.toList());
     }
 
     @Transactional
     public StallAvailabilityResponse toggleDisabled(Long id) {
-        Stall stall = stallRepository.findById(id)
+        // Row lock: the full-row UPDATE below must not overwrite a concurrent claim or release
+        Stall stall = stallRepository.findByIdWithLock(id)
                 .orElseThrow(() -> new RuntimeException("Stall not found with id: " + id));
         if (stall.isReserved()) {
             throw new IllegalStateException(
                     "Cannot disable a reserved stall. Please wait until the reservation ends.");
         }
         stall.setDisabled(!stall.isDisabled());
+        eventPublisher.publishEvent(new StallsChangedEvent(List.of(id)));
         return toAvailabilityResponse(stallRepository.save(stall));
     }
 
     // ─── Mapper ───────────────────────────────────────────────
 
-    private StallAvailabilityResponse toAvailabilityResponse(Stall stall) {
-        String statusLabel;
-        if (stall.isDisabled()) {
-            statusLabel = "DISABLED";
-        } else if (stall.isReserved()) {
-            statusLabel = "RESERVED";
-        } else {
-            statusLabel = "AVAILABLE";
+    private static String statusLabel(boolean reserved, boolean disabled) {
+        if (disabled) {
+            return "DISABLED";
+        } else if (reserved) {
+            return "RESERVED";
         }
+        return "AVAILABLE";
+    }
 
-        StallAvailabilityResponse.StallAvailabilityResponseBuilder builder = StallAvailabilityResponse.builder()
+    /** Stall-only mapping, used where the stall is known not to be reserved. */
+    private StallAvailabilityResponse toAvailabilityResponse(Stall stall) {
+        return StallAvailabilityResponse.builder()
                 .id(stall.getId())
                 .stallCode(stall.getStallCode())
                 .floorName(stall.getFloor().getFloorName())
@@ -103,24 +151,34 @@ public class StallService {
                 .price(stall.getPrice())
                 .reserved(stall.isReserved())
                 .disabled(stall.isDisabled())
-                .statusLabel(statusLabel);
+                .statusLabel(statusLabel(stall.isReserved(), stall.isDisabled()))
+                .build();
+    }
 
-        // Fetch vendor info only if reserved
-        if (stall.isReserved()) {
-            Optional<ReservationStall> rs = reservationStallRepository.findActiveByStallId(stall.getId());
-            rs.ifPresent(link -> {
-                Reservation reservation = link.getReservation();
-                User vendor = reservation.getUser();
-                builder.reservationId(reservation.getId())
-                        .reservationDate(reservation.getReservationDate())
-                        .reservationStatus(reservation.getStatus())
-                        .vendorId(vendor.getId())
-                        .vendorName(vendor.getName())
-                        .vendorEmail(vendor.getEmail())
-                        .vendorContact(vendor.getContactNumber())
-                        .vendorBusiness(vendor.getBusinessName())
-                        .vendorGenres(userRepository.findGenresByUserId(vendor.getId()));
-            });
+    private StallAvailabilityResponse toAvailabilityResponse(StallAvailabilityRow row,
+            Map<Long, List<String>> genresByVendor) {
+        StallAvailabilityResponse.StallAvailabilityResponseBuilder builder = StallAvailabilityResponse.builder()
+                .id(row.stallId())
+                .stallCode(row.stallCode())
+                .floorName(row.floorName())
+                .floorId(row.floorId())
+                .size(row.size() != null ? row.size() : "UNKNOWN")
+                .price(row.price() != null ? row.price() : 0.0)
+                .reserved(row.reserved())
+                .disabled(row.disabled())
+                .statusLabel(statusLabel(row.reserved(), row.disabled()));
+
+        // Vendor columns are only populated for reserved stalls
+        if (row.reservationId() != null) {
+            builder.reservationId(row.reservationId())
+                    .reservationDate(row.reservationDate())
+                    .reservationStatus(row.reservationStatus())
+                    .vendorId(row.vendorId())
+                    .vendorName(row.vendorName())
+                    .vendorEmail(row.vendorEmail())
+                    .vendorContact(row.vendorContact())
+                    .vendorBusiness(row.vendorBusiness())
+                    .vendorGenres(genresByVendor.getOrDefault(row.vendorId(), List.of()));
         }
 
         return builder.build();
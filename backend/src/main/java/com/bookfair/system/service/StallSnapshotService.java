@@ -0,0 +1,161 @@
+package com.bookfair.system.service;
+
+import com.bookfair.system.dto.response.StallChangesResponse;
+import com.bookfair.system.dto.response.StallResponse;
+import com.bookfair.system.entity.Stall;
+import com.bookfair.system.event.StallsChangedEvent;
+import com.bookfair.system.repository.StallRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory, copy-on-write snapshot of every stall and its status, stamped
+ * with a monotonically increasing version.
+ *
+ * Reads are served from the current immutable snapshot without touching the
+ * database. Committed changes only mark stall ids dirty; the next read
+ * reloads just those stalls and publishes a new snapshot with version + 1.
+ * Each entry remembers the version it last changed in, so clients can ask
+ * for the stalls changed since any version they hold.
+ */
+@Service
+@RequiredArgsConstructor
+public class StallSnapshotService {
+
+    private final StallRepository stallRepository;
+
+    private final Set<Long> dirtyStallIds = ConcurrentHashMap.newKeySet();
+    private volatile Snapshot snapshot;
+
+    private record Entry(Long floorId, StallResponse stall, long changedIn) {
+    }
+
+    /** {@code baseVersion} is the version the process started from; older client versions get a full list. */
+    private record Snapshot(long baseVersion, long version, Map<Long, Entry> entries, Map<Long, Long> removedIn) {
+    }
+
+    @Order(0) // before StallEventBroadcaster reads the changes
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onStallsChanged(StallsChangedEvent event) {
+        dirtyStallIds.addAll(event.stallIds());
+    }
+
+    /** Stall list together with the snapshot version it was read from. */
+    public record VersionedStalls(long version, List<StallResponse> stalls) {
+    }
+
+    /** All stalls (optionally one floor) in stall id order. */
+    public VersionedStalls getStalls(Long floorId) {
+        Snapshot current = current();
+        return new VersionedStalls(current.version(), filter(current, floorId));
+    }
+
+    private static List<StallResponse> filter(Snapshot snapshot, Long floorId) {
+        List<StallResponse> stalls = new ArrayList<>();
+        for (Entry entry : snapshot.entries().values()) {
+            if (floorId == null || floorId.equals(entry.floorId())) {
+                stalls.add(entry.stall());
+            }
+        }
+        return stalls;
+    }
+
+    /** Stalls changed or removed after {@code since}; a full list if the client is unknown or ahead. */
+    public StallChangesResponse getChangesSince(long since) {
+        Snapshot current = current();
+        if (since < current.baseVersion() || since > current.version()) {
+            return new StallChangesResponse(current.version(), true, filter(current, null), List.of());
+        }
+        List<StallResponse> changed = new ArrayList<>();
+        for (Entry entry : current.entries().values()) {
+            if (entry.changedIn() > since) {
+                changed.add(entry.stall());
+            }
+        }
+        List<Long> removed = new ArrayList<>();
+        current.removedIn().forEach((id, version) -> {
+            if (version > since) {
+                removed.add(id);
+            }
+        });
+        return new StallChangesResponse(current.version(), false, changed, removed);
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current != null && dirtyStallIds.isEmpty()) {
+            return current;
+        }
+        return refresh();
+    }
+
+    private synchronized Snapshot refresh() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            // Versions start at the wall clock so they keep increasing across restarts
+            long baseVersion = System.currentTimeMillis();
+            dirtyStallIds.clear();
+            Map<Long, Entry> entries = new LinkedHashMap<>();
+            for (Stall stall : stallRepository.findAllWithFloors()) {
+                entries.put(stall.getId(), new Entry(stall.getFloor().getId(), toResponse(stall), baseVersion));
+            }
+            snapshot = new Snapshot(baseVersion, baseVersion, Collections.unmodifiableMap(sortById(entries)),
+                    Map.of());
+            return snapshot;
+        }
+        if (dirtyStallIds.isEmpty()) {
+            return current;
+        }
+
+        Set<Long> ids = new HashSet<>(dirtyStallIds);
+        dirtyStallIds.removeAll(ids);
+
+        long version = current.version() + 1;
+        Map<Long, Entry> entries = new HashMap<>(current.entries());
+        Map<Long, Long> removedIn = new HashMap<>(current.removedIn());
+        Set<Long> found = new HashSet<>();
+        for (Stall stall : stallRepository.findAllWithFloorsByIdIn(ids)) {
+            found.add(stall.getId());
+            entries.put(stall.getId(), new Entry(stall.getFloor().getId(), toResponse(stall), version));
+            removedIn.remove(stall.getId());
+        }
+        for (Long id : ids) {
+            if (!found.contains(id) && entries.remove(id) != null) {
+                removedIn.put(id, version);
+            }
+        }
+        snapshot = new Snapshot(current.baseVersion(), version, Collections.unmodifiableMap(sortById(entries)),
+                Collections.unmodifiableMap(removedIn));
+        return snapshot;
+    }
+
+    private static Map<Long, Entry> sortById(Map<Long, Entry> entries) {
+        Map<Long, Entry> sorted = new LinkedHashMap<>();
+        entries.keySet().stream().sorted().forEach(id -> sorted.put(id, entries.get(id)));
+        return sorted;
+    }
+
+    private static StallResponse toResponse(Stall stall) {
+        return new StallResponse(
+                stall.getId(),
+                stall.getStallCode(),
+                stall.getSize(),
+                stall.getPrice(),
+                stall.isReserved(),
+                stall.isDisabled(),
+                stall.getFloor().getFloorName());
+    }
+}
@@ -7,17 +7,20 @@ import com.bookfair.system.dto.request.ChangePasswordRequest;
 import com.bookfair.system.dto.request.UserProfileUpdateRequest;
 import com.bookfair.system.entity.Genre;
 import com.bookfair.system.entity.User;
+import com.bookfair.system.event.UserChangedEvent;
 import com.bookfair.system.repository.GenreRepository;
 import com.bookfair.system.repository.ReservationRepository;
 import com.bookfair.system.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -28,8 +31,10 @@ public class UserService {
 
   private final UserRepository userRepository;
   private final GenreRepository genreRepository;
+  private final GenreDictionary genreDictionary;
   private final PasswordEncoder passwordEncoder;
   private final ReservationRepository reservationRepository;
+  private final ApplicationEventPublisher eventPublisher;
 
   /** Thrown when a user cannot be deleted due to FK-linked reservations. */
   public static class UserHasReservationsException extends RuntimeException {
@@ -66,26 +71,36 @@ public class UserService {
     if (request.getBusinessName() != null && !request.getBusinessName().isEmpty())
       user.setBusinessName(request.getBusinessName());
 
-    // Keeping MAIN's logic: safely parsing strings into Genre entities
-    if (request.getGenres() != null) {
-      Set<Genre> genreEntities = new HashSet<>();
+    if (request.getGenres() != null)
+      replaceGenres(user, request.getGenres());
 
-      for (String rawGenreName : request.getGenres()) {
-        String cleanName = rawGenreName.trim();
-
-        Genre genre = genreRepository.findByNameIgnoreCase(cleanName)
-            .orElseThrow(() -> {
-              log.error("Genre not found in database: '{}'", cleanName);
-              return new IllegalArgumentException("Invalid genre: " + cleanName);
-            });
+    userRepository.save(user);
+    return toProfileResponse(user);
+  }
 
-        genreEntities.add(genre);
+  /**
+   * Brings the user's genres in line with {@code names} by removing and adding
+   * only the difference, so Hibernate touches just the changed user_genres
+   * rows instead of recreating the whole set. Names resolve in memory.
+   */
+  private void replaceGenres(User user, List<String> names) {
+    Map<String, Long> resolved = genreDictionary.resolve(names);
+    for (String rawGenreName : names) {
+      String cleanName = rawGenreName.trim();
+      if (!resolved.containsKey(cleanName)) {
+        log.error("Genre not found in database: '{}'", cleanName);
+        throw new IllegalArgumentException("Invalid genre: " + cleanName);
       }
-      user.setGenres(genreEntities);
     }
 
-    userRepository.save(user);
-    return toProfileResponse(user);
+    Set<Long> wantedIds = new HashSet<>(resolved.values());
+    Set<Genre> genres = user.getGenres();
+    genres.removeIf(genre -> !wantedIds.contains(genre.getId()));
+    Set<Long> currentIds = genres.stream().map(Genre::getId).collect(Collectors.toSet());
+    for (Long genreId : wantedIds) {
+      if (!currentIds.contains(genreId))
+        genres.add(genreRepository.getReferenceById(genreId));
+    }
   }
 
   public void changePassword(String email, ChangePasswordRequest request) {
@@ -97,6 +112,7 @@ public class UserService {
 
     user.setPassword(passwordEncoder.encode(request.getNewPassword()));
     userRepository.save(user);
+    eventPublisher.publishEvent(new UserChangedEvent(List.of(user.getEmail())));
   }
 
   public List<UserProfileResponse> getEmployees() {
@@ -144,6 +160,7 @@ public class UserService {
   public UserProfileResponse updateUser(Long id, AdminUpdateUserRequest request) {
     User user = userRepository.findById(id)
         .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
+    String previousEmail = user.getEmail();
 
     if (request.getEmail() != null && !request.getEmail().equalsIgnoreCase(user.getEmail())) {
       if (userRepository.existsByEmail(request.getEmail()))
@@ -163,19 +180,21 @@ public class UserService {
     if (request.getPassword() != null && !request.getPassword().isBlank())
       user.setPassword(passwordEncoder.encode(request.getPassword()));
 
+    eventPublisher.publishEvent(new UserChangedEvent(new HashSet<>(List.of(previousEmail, user.getEmail()))));
     return toAdminResponse(userRepository.save(user));
   }
 
   @Transactional
   public void deleteUser(Long id) {
-    if (!userRepository.existsById(id))
-      throw new RuntimeException("User not found with id: " + id);
+    User user = userRepository.findById(id)
+        .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
 
     long reservationCount = reservationRepository.countByUserId(id);
     if (reservationCount > 0)
       throw new UserHasReservationsException(reservationCount);
 
-    userRepository.deleteById(id);
+    userRepository.delete(user);
+    eventPublisher.publishEvent(new UserChangedEvent(List.of(user.getEmail())));
   }
 
   @Transactional
@@ -183,6 +202,7 @@ public class UserService {
     User user = userRepository.findById(id)
         .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
     user.setEnabled(!Boolean.TRUE.equals(user.getEnabled()));
+    eventPublisher.publishEvent(new UserChangedEvent(List.of(user.getEmail())));
     return toAdminResponse(userRepository.save(user));
   }
 
@@ -0,0 +1,72 @@
+-- Idempotent schema additions, applied on every start (spring.sql.init.mode=always).
+-- Core tables are managed outside the application (ddl-auto=none).
+
+-- Transactional e-mail outbox (written with the reservation, drained by MailOutboxDispatcher)
+CREATE TABLE IF NOT EXISTS mail_outbox (
+    id               BIGSERIAL PRIMARY KEY,
+    kind             VARCHAR(40)  NOT NULL,
+    recipient        VARCHAR(100) NOT NULL,
+    recipient_name   VARCHAR(100),
+    contact_number   VARCHAR(20),
+    reservation_code VARCHAR(255),
+    payment_status   VARCHAR(20),
+    stall_details    TEXT,
+    status           VARCHAR(20)  NOT NULL DEFAULT 'PENDING',
+    attempts         INT          NOT NULL DEFAULT 0,
+    next_attempt_at  TIMESTAMP    NOT NULL,
+    last_error       VARCHAR(500),
+    created_at       TIMESTAMP    NOT NULL,
+    sent_at          TIMESTAMP
+);
+
+-- Bulk-mail rows (job_id set) carry a lower priority than transactional mail
+ALTER TABLE mail_outbox ADD COLUMN IF NOT EXISTS priority INT NOT NULL DEFAULT 0;
+ALTER TABLE mail_outbox ADD COLUMN IF NOT EXISTS job_id BIGINT;
+ALTER TABLE mail_outbox ADD COLUMN IF NOT EXISTS subject VARCHAR(200);
+ALTER TABLE mail_outbox ADD COLUMN IF NOT EXISTS body TEXT;
+
+DROP INDEX IF EXISTS idx_mail_outbox_due;
+CREATE INDEX IF NOT EXISTS idx_mail_outbox_due_priority ON mail_outbox (priority, next_attempt_at, id) WHERE status = 'PENDING';
+CREATE INDEX IF NOT EXISTS idx_mail_outbox_job ON mail_outbox (job_id) WHERE job_id IS NOT NULL;
+
+-- Admin bulk-mail jobs (QR pass re-issue, announcements); recipients are queued into mail_outbox
+CREATE TABLE IF NOT EXISTS bulk_mail_jobs (
+    id                BIGSERIAL PRIMARY KEY,
+    kind              VARCHAR(40)  NOT NULL,
+    floor_id          BIGINT,
+    subject           VARCHAR(200),
+    message           TEXT,
+    status            VARCHAR(20)  NOT NULL,
+    cursor_id         BIGINT       NOT NULL DEFAULT 0,
+    queued            INT          NOT NULL DEFAULT 0,
+    created_by        VARCHAR(100),
+    created_at        TIMESTAMP    NOT NULL,
+    updated_at        TIMESTAMP    NOT NULL
+);
+
+-- Explicit stall cancellation: a cancelled stall keeps its link with cancelled_at set.
+-- Legacy "<token>-C-<stallId>" split reservations point at their parent and hand their link back to it.
+ALTER TABLE reservation_stalls ADD COLUMN IF NOT EXISTS cancelled_at TIMESTAMP;
+ALTER TABLE reservations ADD COLUMN IF NOT EXISTS parent_reservation_id BIGINT REFERENCES reservations (id);
+
+UPDATE reservations c SET parent_reservation_id = p.id
+FROM reservations p
+WHERE c.parent_reservation_id IS NULL
+  AND c.qr_code_token LIKE '%-C-%'
+  AND p.qr_code_token = split_part(c.qr_code_token, '-C-', 1);
+
+-- The real cancellation time was never stored; the booking date is the closest known bound
+UPDATE reservation_stalls rs SET reservation_id = c.parent_reservation_id,
+       cancelled_at = COALESCE(rs.cancelled_at, c.reservation_date)
+FROM reservations c
+WHERE rs.reservation_id = c.id AND c.parent_reservation_id IS NOT NULL;
+
+-- Legacy reservations cancelled as a whole kept their links; after this an active link is cancelled_at IS NULL
+UPDATE reservation_stalls rs SET cancelled_at = r.reservation_date
+FROM reservations r
+WHERE rs.reservation_id = r.id AND r.status = 'CANCELLED' AND rs.cancelled_at IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_reservations_base_date ON reservations (reservation_date DESC) WHERE parent_reservation_id IS NULL;
+CREATE INDEX IF NOT EXISTS idx_reservations_parent ON reservations (parent_reservation_id) WHERE parent_reservation_id IS NOT NULL;
+CREATE INDEX IF NOT EXISTS idx_reservations_user_status ON reservations (user_id, status);
+CREATE INDEX IF NOT EXISTS idx_reservation_stalls_active_stall ON reservation_stalls (stall_id) WHERE cancelled_at IS NULL;
@@ -0,0 +1,274 @@
+package com.bookfair.system.controller;
+
+import com.bookfair.system.security.jwt.JwtUtils;
+import com.bookfair.system.service.QrCodeService;
+import com.bookfair.system.support.FairSeeder;
+import com.bookfair.system.support.TestDatabase;
+import com.bookfair.system.support.TestTokens;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Upper bounds on the SQL statements each endpoint may run against a
+ * realistic fair (500 stalls on 5 floors, 300 vendors, ~200 reservations).
+ *
+ * Counts come from the per-route {@code http.server.sql.statements} summary
+ * recorded by config.sql, with warm caches (principals, reference data,
+ * availability snapshot). Each bound is the work the endpoint needs by
+ * design, listed next to the call. A bound that starts failing after a
+ * change usually means a new lazy load per row; none of them grows with the
+ * data.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class EndpointQueryCountTests {
+
+    private static final String STATEMENTS = "http.server.sql.statements";
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        TestDatabase.register(registry);
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private QrCodeService qrCodeService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private FairSeeder.Fair fair;
+    private String admin;
+    private String employee;
+    private String vendor;
+
+    @BeforeAll
+    void seedAndWarmUp() throws Exception {
+        fair = new FairSeeder(jdbcTemplate, 20L).seed();
+        admin = TestTokens.admin(jwtUtils);
+        employee = TestTokens.employee(jwtUtils);
+        vendor = TestTokens.vendor(jwtUtils, fair.vendorIds().get(0));
+
+        // Principal cache, second-level/query caches and the availability snapshot
+        mockMvc.perform(get("/api/admin/stalls").header(HttpHeaders.AUTHORIZATION, admin));
+        mockMvc.perform(get("/api/employee/stalls/1").header(HttpHeaders.AUTHORIZATION, employee));
+        mockMvc.perform(get("/api/vendor-publishers/reservations/count").header(HttpHeaders.AUTHORIZATION, vendor));
+        mockMvc.perform(get("/api/stalls/halls"));
+        mockMvc.perform(get("/api/stalls"));
+    }
+
+    // ── StallController ───────────────────────────────────────
+
+    @Test
+    void publicStallEndpoints() throws Exception {
+        // Served from the snapshot; at most one rebuild if another test changed a stall first
+        perform(1, null, HttpMethod.GET, "/api/stalls/halls").andExpect(status().isOk());
+        perform(1, null, HttpMethod.GET, "/api/stalls").andExpect(status().isOk());
+        perform(1, null, HttpMethod.GET, "/api/stalls?floorId=2").andExpect(status().isOk());
+        perform(1, null, HttpMethod.GET, "/api/stalls/changes?since=0").andExpect(status().isOk());
+        // The initial event is built on the broadcaster's dispatcher thread, not the request
+        perform(0, null, HttpMethod.GET, "/api/stalls/stream").andExpect(request().asyncStarted());
+    }
+
+    // ── AdminStallController ──────────────────────────────────
+
+    @Test
+    void adminStallReads() throws Exception {
+        // availability rows + vendor genres
+        perform(2, admin, HttpMethod.GET, "/api/admin/stalls/availability").andExpect(status().isOk());
+        // one select with floor and stall type fetch-joined
+        perform(1, admin, HttpMethod.GET, "/api/admin/stalls").andExpect(status().isOk());
+    }
+
+    @Test
+    void adminStallListWithColdSecondLevelCache() throws Exception {
+        // Floor and stall type are fetch-joined, not loaded per distinct id on a cache miss
+        entityManagerFactory.getCache().evictAll();
+        perform(1, admin, HttpMethod.GET, "/api/admin/stalls").andExpect(status().isOk());
+    }
+
+    @Test
+    void adminToggleDisabled() throws Exception {
+        Long stallId = fair.freeStallIds().get(0);
+        // locking select + update; floor and stall type come from the second-level cache
+        perform(2, admin, HttpMethod.PATCH, "/api/admin/stalls/{id}/toggle-disabled", stallId)
+                .andExpect(status().isOk());
+        perform(2, admin, HttpMethod.PATCH, "/api/admin/stalls/{id}/toggle-disabled", stallId)
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void adminStallCreateUpdateDelete() throws Exception {
+        String body = "{\"stallCode\":\"QC-%s\",\"floor\":{\"id\":1},\"stallType\":{\"id\":%d},"
+                + "\"reserved\":false,\"disabled\":false}";
+        // floor and stall type resolve from the second-level cache: insert only
+        performJson(1, admin, HttpMethod.POST, "/api/admin/stalls", body.formatted("NEW", 1))
+                .andExpect(status().isOk());
+        Long id = jdbcTemplate.queryForObject("SELECT id FROM stalls WHERE stall_code = 'QC-NEW'", Long.class);
+
+        // load by id + update; the new floor and stall type are cache hits
+        performJson(2, admin, HttpMethod.PUT, "/api/admin/stalls/{id}", body.formatted("UPD", 2), id)
+                .andExpect(status().isOk());
+        // load by id + delete
+        perform(2, admin, HttpMethod.DELETE, "/api/admin/stalls/{id}", id).andExpect(status().isOk());
+    }
+
+    // ── AdminReservationController ────────────────────────────
+
+    @Test
+    void adminReservations() throws Exception {
+        // reservations with users + all stall links
+        perform(2, admin, HttpMethod.GET, "/api/admin/reservations").andExpect(status().isOk());
+        // count + page + links of the page's reservations
+        perform(3, admin, HttpMethod.GET, "/api/admin/reservations/search?status=CONFIRMED&floorId=1&size=50")
+                .andExpect(status().isOk());
+        perform(3, admin, HttpMethod.GET, "/api/admin/reservations/search?from=2020-01-01T00:00:00&size=50")
+                .andExpect(status().isOk());
+
+        Long id = jdbcTemplate.queryForObject("SELECT id FROM reservations WHERE qr_code_token = ?", Long.class,
+                fair.confirmedTokens().get(1));
+        // reservation with its user + update
+        perform(2, admin, HttpMethod.PUT, "/api/admin/reservations/{id}/status?status=PENDING", id)
+                .andExpect(status().isOk());
+    }
+
+    // ── EmployeePanelController ───────────────────────────────
+
+    @Test
+    void employeePanel() throws Exception {
+        // one read-model select (stall, floor, type, active link, vendor, payment) per call
+        perform(1, employee, HttpMethod.GET, "/api/employee/stalls").andExpect(status().isOk());
+        perform(1, employee, HttpMethod.GET, "/api/employee/stalls?floorId=3").andExpect(status().isOk());
+        perform(1, employee, HttpMethod.GET, "/api/employee/stalls/{stallId}", 42).andExpect(status().isOk());
+        // reservation + user, stall links, payment
+        perform(3, employee, HttpMethod.GET, "/api/employee/qr/{token}", fair.confirmedTokens().get(0))
+                .andExpect(status().isOk());
+    }
+
+    // ── ReservationController ─────────────────────────────────
+
+    @Test
+    void vendorReads() throws Exception {
+        String code = fair.confirmedTokens().get(0);
+        // one count / one links-with-stalls select; inline QR images come from the in-memory QR cache
+        perform(1, vendor, HttpMethod.GET, "/api/vendor-publishers/reservations/count").andExpect(status().isOk());
+        perform(1, vendor, HttpMethod.GET, "/api/vendor-publishers/reservations/my").andExpect(status().isOk());
+        perform(1, vendor, HttpMethod.GET, "/api/vendor-publishers/reservations/my?inlineQr=true")
+                .andExpect(status().isOk());
+        String sig = qrCodeService.sign(code);
+        // code existence check; the image comes from the QR cache
+        perform(1, null, HttpMethod.GET, "/api/vendor-publishers/reservations/{code}/qr.png?sig={sig}", code, sig)
+                .andExpect(status().isOk());
+        perform(1, null, HttpMethod.GET, "/api/vendor-publishers/reservations/{code}/qr.svg?sig={sig}", code, sig)
+                .andExpect(status().isOk());
+        // Forged URLs are refused before any lookup
+        perform(0, null, HttpMethod.GET, "/api/vendor-publishers/reservations/{code}/qr.png", code)
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void vendorBooksThreeStalls() throws Exception {
+        long vendorId = fair.freeVendorIds().get(0);
+        String bearer = TestTokens.vendor(jwtUtils, vendorId);
+        mockMvc.perform(get("/api/vendor-publishers/reservations/count").header(HttpHeaders.AUTHORIZATION, bearer));
+        List<Long> stalls = fair.freeStallIds().subList(10, 13);
+        // user lock, limit count, claim, reservation, stalls, 3 links, payment, outbox row
+        performJson(10, bearer, HttpMethod.POST, "/api/vendor-publishers/reservations",
+                "{\"stallIds\":" + stalls + ",\"paymentMethod\":\"CASH_ON_DATE\"}")
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void vendorCancelsOneStall() throws Exception {
+        Map<String, Object> row = jdbcTemplate.queryForMap("SELECT r.user_id, MIN(rs.stall_id) AS stall_id "
+                + "FROM reservations r JOIN reservation_stalls rs ON rs.reservation_id = r.id "
+                + "WHERE r.status = 'CONFIRMED' AND rs.cancelled_at IS NULL "
+                + "GROUP BY r.id, r.user_id HAVING COUNT(*) > 1 "
+                + "ORDER BY r.id DESC LIMIT 1");
+        long vendorId = ((Number) row.get("user_id")).longValue();
+        String bearer = TestTokens.vendor(jwtUtils, vendorId);
+        mockMvc.perform(get("/api/vendor-publishers/reservations/count").header(HttpHeaders.AUTHORIZATION, bearer));
+        // user lock, active link, release, link update, remaining active count
+        perform(5, bearer, HttpMethod.DELETE,
+                "/api/vendor-publishers/reservations/{stallId}", row.get("stall_id"))
+                .andExpect(status().isOk());
+    }
+
+    // ── Helpers ───────────────────────────────────────────────
+
+    private ResultActions perform(int maxStatements, String bearer, HttpMethod method, String uri, Object... vars)
+            throws Exception {
+        return perform(maxStatements, bearer, MockMvcRequestBuilders.request(method, uri, vars), method, uri);
+    }
+
+    private ResultActions performJson(int maxStatements, String bearer, HttpMethod method, String uri, String json,
+            Object... vars) throws Exception {
+        return perform(maxStatements, bearer, MockMvcRequestBuilders.request(method, uri, vars)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json), method, uri);
+    }
+
+    private ResultActions perform(int maxStatements, String bearer, MockHttpServletRequestBuilder request,
+            HttpMethod method, String uri) throws Exception {
+        String route = uri.contains("?") ? uri.substring(0, uri.indexOf('?')) : uri;
+        DistributionSummary before = summary(method, route);
+        long countBefore = before != null ? before.count() : 0;
+        double totalBefore = before != null ? before.totalAmount() : 0;
+
+        if (bearer != null) {
+            request.header(HttpHeaders.AUTHORIZATION, bearer);
+        }
+        ResultActions result = mockMvc.perform(request);
+
+        DistributionSummary after = summary(method, route);
+        assertThat(after).as("statement summary for %s %s", method, route).isNotNull();
+        assertThat(after.count() - countBefore).as("requests recorded for %s %s", method, route).isEqualTo(1);
+        assertThat(after.totalAmount() - totalBefore)
+                .as("SQL statements for %s %s", method, uri)
+                .isLessThanOrEqualTo(maxStatements);
+        return result;
+    }
+
+    private DistributionSummary summary(HttpMethod method, String route) {
+        return meterRegistry.find(STATEMENTS)
+                .tags("method", method.name(), "uri", route)
+                .summary();
+    }
+}
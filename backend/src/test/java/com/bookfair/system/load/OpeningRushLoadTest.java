@@ -0,0 +1,309 @@
+package com.bookfair.system.load;
+
+import com.bookfair.system.support.FairSeeder;
+import com.bookfair.system.support.TestDatabase;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Registration-day rush: N vendors sign in through /api/auth/signin, wait
+ * for the opening, then all try to book 1-3 stalls out of the same small set
+ * of popular stalls (retrying with other stalls on 409) while pollers keep
+ * reading /api/stalls. Runs over real HTTP against an in-process database.
+ *
+ * Prints throughput, latency percentiles and the status breakdown per
+ * operation (also written to target/load-test-report.json) and checks that
+ * no stall ended up in two CONFIRMED reservations.
+ *
+ * Only runs with the loadtest profile: {@code mvn -Ploadtest test}.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class OpeningRushLoadTest {
+
+    private static final int VENDORS = Integer.getInteger("load.vendors", 200);
+    private static final int POLLERS = Integer.getInteger("load.pollers", 20);
+    private static final int HOT_STALLS = Integer.getInteger("load.hotStalls", 60);
+    private static final int ATTEMPTS = Integer.getInteger("load.attempts", 5);
+    private static final long SEED = Long.getLong("load.seed", 22L);
+    private static final int MAX_STALLS_PER_VENDOR = 3;
+
+    private static final Path REPORT = Path.of("target", "load-test-report.json");
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        TestDatabase.register(registry);
+        registry.add("spring.datasource.hikari.maximum-pool-size", () -> "20");
+    }
+
+    @Value("${local.server.port}")
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final JsonMapper json = JsonMapper.builder().build();
+    private final Map<String, Operation> operations = new ConcurrentHashMap<>();
+
+    @Test
+    void openingRush() throws Exception {
+        FairSeeder.Fair fair = new FairSeeder(jdbcTemplate, SEED).vendors(VENDORS, 0).seed();
+        List<Long> hotStalls = fair.freeStallIds().subList(0, Math.min(HOT_STALLS, fair.freeStallIds().size()));
+
+        ExecutorService pool = Executors.newFixedThreadPool(VENDORS + POLLERS);
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        CountDownLatch signedIn = new CountDownLatch(VENDORS);
+        CountDownLatch opening = new CountDownLatch(1);
+        CountDownLatch vendorsDone = new CountDownLatch(VENDORS);
+        AtomicBoolean polling = new AtomicBoolean(true);
+
+        for (int v = 0; v < VENDORS; v++) {
+            String email = FairSeeder.vendorEmailForId(fair.vendorIds().get(v));
+            Random random = new Random(SEED * 31 + v);
+            pool.execute(() -> {
+                try {
+                    String token = signIn(http, email);
+                    signedIn.countDown();
+                    opening.await();
+                    if (token != null) {
+                        book(http, token, hotStalls, random);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    vendorsDone.countDown();
+                }
+            });
+        }
+        for (int p = 0; p < POLLERS; p++) {
+            pool.execute(() -> {
+                try {
+                    opening.await();
+                    while (polling.get()) {
+                        call(http, "poll", get("/api/stalls", null));
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+
+        assertThat(signedIn.await(5, TimeUnit.MINUTES)).as("all vendors signed in").isTrue();
+        long rushStart = System.nanoTime();
+        opening.countDown();
+        assertThat(vendorsDone.await(10, TimeUnit.MINUTES)).as("rush finished").isTrue();
+        long rushNanos = System.nanoTime() - rushStart;
+        polling.set(false);
+        pool.shutdown();
+        assertThat(pool.awaitTermination(1, TimeUnit.MINUTES)).isTrue();
+
+        report(rushNanos);
+
+        List<Long> doubleBooked = jdbcTemplate.queryForList("SELECT rs.stall_id FROM reservation_stalls rs "
+                + "JOIN reservations r ON r.id = rs.reservation_id "
+                + "WHERE r.status = 'CONFIRMED' AND rs.cancelled_at IS NULL "
+                + "GROUP BY rs.stall_id HAVING COUNT(*) > 1", Long.class);
+        assertThat(doubleBooked).as("stalls in more than one CONFIRMED reservation").isEmpty();
+
+        List<Long> overLimit = jdbcTemplate.queryForList("SELECT r.user_id FROM reservation_stalls rs "
+                + "JOIN reservations r ON r.id = rs.reservation_id "
+                + "WHERE r.status = 'CONFIRMED' AND rs.cancelled_at IS NULL "
+                + "GROUP BY r.user_id HAVING COUNT(*) > " + MAX_STALLS_PER_VENDOR, Long.class);
+        assertThat(overLimit).as("vendors above the stall limit").isEmpty();
+
+        Integer booked = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM reservation_stalls rs "
+                + "JOIN reservations r ON r.id = rs.reservation_id WHERE r.status = 'CONFIRMED' "
+                + "AND rs.cancelled_at IS NULL", Integer.class);
+        Integer reserved = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM stalls WHERE reserved", Integer.class);
+        assertThat(reserved).as("reserved flags vs CONFIRMED links").isEqualTo(booked);
+    }
+
+    private String signIn(HttpClient http, String email) {
+        String body = "{\"email\":\"" + email + "\",\"password\":\"" + FairSeeder.PASSWORD + "\"}";
+        HttpResponse<String> response = call(http, "signin", post("/api/auth/signin", null, body));
+        if (response == null || response.statusCode() != 200) {
+            return null;
+        }
+        JsonNode node = json.readTree(response.body());
+        return node.get("token").asString();
+    }
+
+    /** Books until the vendor holds the limit, the attempts run out or nothing is left to try. */
+    private void book(HttpClient http, String token, List<Long> hotStalls, Random random) {
+        List<Long> candidates = new ArrayList<>(hotStalls);
+        Collections.shuffle(candidates, random);
+        int held = 0;
+        for (int attempt = 0; attempt < ATTEMPTS && held < MAX_STALLS_PER_VENDOR && !candidates.isEmpty();
+                attempt++) {
+            int wanted = Math.min(1 + random.nextInt(MAX_STALLS_PER_VENDOR), MAX_STALLS_PER_VENDOR - held);
+            List<Long> pick = new ArrayList<>(candidates.subList(0, Math.min(wanted, candidates.size())));
+            candidates.removeAll(pick);
+            String body = "{\"stallIds\":" + pick + ",\"paymentMethod\":\""
+                    + (random.nextBoolean() ? "CASH_ON_DATE" : "CARD") + "\"}";
+            HttpResponse<String> response = call(http, "reserve",
+                    post("/api/vendor-publishers/reservations", token, body));
+            if (response != null && response.statusCode() == 200) {
+                held += pick.size();
+            }
+        }
+    }
+
+    private HttpRequest get(String path, String token) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri(path)).timeout(Duration.ofSeconds(30)).GET();
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        return request.build();
+    }
+
+    private HttpRequest post(String path, String token, String body) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri(path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        return request.build();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    /** Sends the request and records its latency and outcome (HTTP status or exception type). */
+    private HttpResponse<String> call(HttpClient http, String operation, HttpRequest request) {
+        Operation op = operations.computeIfAbsent(operation, k -> new Operation());
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+            op.record(start, System.nanoTime(), String.valueOf(response.statusCode()));
+            return response;
+        } catch (IOException e) {
+            op.record(start, System.nanoTime(), e.getClass().getSimpleName());
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private void report(long rushNanos) throws IOException {
+        double seconds = rushNanos / 1e9;
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("vendors", VENDORS);
+        report.put("pollers", POLLERS);
+        report.put("hotStalls", HOT_STALLS);
+        report.put("rushSeconds", seconds);
+
+        StringBuilder text = new StringBuilder(String.format(
+                "%nOpening rush: %d vendors, %d pollers, %d hot stalls, %.1f s%n", VENDORS, POLLERS, HOT_STALLS,
+                seconds));
+        text.append(String.format("%-8s %8s %9s %8s %8s %8s %8s  %s%n",
+                "op", "count", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms", "outcomes"));
+        for (Map.Entry<String, Operation> entry : new TreeMap<>(operations).entrySet()) {
+            Operation op = entry.getValue();
+            long[] sorted = op.sortedLatencies();
+            Map<String, Long> outcomes = op.outcomes();
+            // Over each operation's own span (sign-in happens before the opening)
+            double rate = sorted.length / Math.max(op.spanNanos() / 1e9, 1e-3);
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("count", sorted.length);
+            row.put("throughputPerSecond", rate);
+            row.put("p50Ms", millis(percentile(sorted, 0.50)));
+            row.put("p95Ms", millis(percentile(sorted, 0.95)));
+            row.put("p99Ms", millis(percentile(sorted, 0.99)));
+            row.put("maxMs", millis(sorted.length > 0 ? sorted[sorted.length - 1] : 0));
+            row.put("outcomes", outcomes);
+            report.put(entry.getKey(), row);
+            text.append(String.format("%-8s %8d %9.1f %8.1f %8.1f %8.1f %8.1f  %s%n", entry.getKey(),
+                    sorted.length, rate, row.get("p50Ms"), row.get("p95Ms"), row.get("p99Ms"), row.get("maxMs"),
+                    outcomes));
+        }
+        System.out.print(text);
+        Files.createDirectories(REPORT.getParent());
+        json.writerWithDefaultPrettyPrinter().writeValue(REPORT.toFile(), report);
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 1e4) / 100.0;
+    }
+
+    /** Latencies and outcome counts of one kind of request. */
+    private static final class Operation {
+        private final ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        private final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+        private final AtomicLong firstStart = new AtomicLong(Long.MAX_VALUE);
+        private final AtomicLong lastEnd = new AtomicLong(Long.MIN_VALUE);
+
+        void record(long start, long end, String outcome) {
+            latencies.add(end - start);
+            outcomes.computeIfAbsent(outcome, k -> new LongAdder()).increment();
+            firstStart.accumulateAndGet(start, Math::min);
+            lastEnd.accumulateAndGet(end, Math::max);
+        }
+
+        long spanNanos() {
+            return Math.max(0, lastEnd.get() - firstStart.get());
+        }
+
+        long[] sortedLatencies() {
+            long[] values = latencies.stream().mapToLong(Long::longValue).toArray();
+            Arrays.sort(values);
+            return values;
+        }
+
+        Map<String, Long> outcomes() {
+            Map<String, Long> counts = new TreeMap<>();
+            outcomes.forEach((outcome, count) -> counts.put(outcome, count.sum()));
+            return counts;
+        }
+    }
+}
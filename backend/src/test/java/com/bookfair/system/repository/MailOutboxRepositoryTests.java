@@ -0,0 +1,97 @@
+package com.bookfair.system.repository;
+
+import com.bookfair.system.entity.MailOutbox;
+import com.bookfair.system.support.TestDatabase;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Outcome writes of the mail outbox only apply to rows still held under the
+ * dispatcher's lease: a bulk-mail cancel or a re-lease that happens while the
+ * mail is on the wire must survive.
+ */
+@SpringBootTest
+@Transactional
+class MailOutboxRepositoryTests {
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        TestDatabase.register(registry);
+    }
+
+    @Autowired
+    private MailOutboxRepository mailOutboxRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final LocalDateTime leasedUntil = LocalDateTime.now().plusMinutes(5).truncatedTo(ChronoUnit.MICROS);
+
+    @Test
+    void failureDoesNotRevivePendingRowCancelledDuringTheSend() {
+        long id = leasedBulkMail(42L);
+        mailOutboxRepository.cancelPendingForJob(42L);
+
+        int updated = mailOutboxRepository.markFailed(id, leasedUntil, MailOutbox.STATUS_PENDING,
+                LocalDateTime.now().plusSeconds(30), "421 try again later");
+
+        assertThat(updated).isZero();
+        assertThat(status(id)).isEqualTo(MailOutbox.STATUS_CANCELLED);
+    }
+
+    @Test
+    void sentIsNotRecordedForRowCancelledDuringTheSend() {
+        long id = leasedBulkMail(43L);
+        mailOutboxRepository.cancelPendingForJob(43L);
+
+        assertThat(mailOutboxRepository.markSent(List.of(id), leasedUntil, LocalDateTime.now())).isZero();
+        assertThat(status(id)).isEqualTo(MailOutbox.STATUS_CANCELLED);
+    }
+
+    @Test
+    void staleLeaseDoesNotOverwriteNewerLease() {
+        long id = leasedBulkMail(44L);
+        jdbcTemplate.update("UPDATE mail_outbox SET next_attempt_at = ? WHERE id = ?", leasedUntil.plusMinutes(5), id);
+
+        assertThat(mailOutboxRepository.markFailed(id, leasedUntil, MailOutbox.STATUS_DEAD,
+                leasedUntil, "550 mailbox unavailable")).isZero();
+        assertThat(mailOutboxRepository.markSent(List.of(id), leasedUntil, LocalDateTime.now())).isZero();
+        assertThat(status(id)).isEqualTo(MailOutbox.STATUS_PENDING);
+    }
+
+    @Test
+    void outcomesApplyUnderTheCurrentLease() {
+        long failed = leasedBulkMail(45L);
+        long sent = leasedBulkMail(45L);
+
+        assertThat(mailOutboxRepository.markFailed(failed, leasedUntil, MailOutbox.STATUS_PENDING,
+                LocalDateTime.now().plusSeconds(30), "421 try again later")).isOne();
+        assertThat(mailOutboxRepository.markSent(List.of(sent), leasedUntil, LocalDateTime.now())).isOne();
+        assertThat(status(failed)).isEqualTo(MailOutbox.STATUS_PENDING);
+        assertThat(status(sent)).isEqualTo(MailOutbox.STATUS_SENT);
+    }
+
+    /** A bulk announcement as MailOutboxDispatcher leaves it after claiming it. */
+    private long leasedBulkMail(long jobId) {
+        return jdbcTemplate.queryForObject("INSERT INTO mail_outbox "
+                + "(kind, recipient, status, attempts, next_attempt_at, created_at, priority, job_id, subject, body) "
+                + "VALUES (?, 'vendor@example.com', 'PENDING', 1, ?, now(), ?, ?, 'Notice', 'Hall B opens late') "
+                + "RETURNING id", Long.class,
+                MailOutbox.KIND_ANNOUNCEMENT, leasedUntil, MailOutbox.PRIORITY_BULK, jobId);
+    }
+
+    private String status(long id) {
+        return jdbcTemplate.queryForObject("SELECT status FROM mail_outbox WHERE id = ?", String.class, id);
+    }
+}
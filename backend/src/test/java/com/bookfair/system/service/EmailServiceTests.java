@@ -0,0 +1,97 @@
+package com.bookfair.system.service;
+
+import com.bookfair.system.support.SmtpStandIn;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+/**
+ * Batch sending over one SMTP connection: per-message pacing and per-message
+ * failures. No application context; the sender points at an in-process SMTP
+ * server.
+ */
+class EmailServiceTests {
+
+    private static final SmtpStandIn SMTP = SmtpStandIn.start();
+
+    private final JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+    private final EmailService emailService = new EmailService(mailSender);
+
+    @AfterAll
+    static void stopSmtp() throws IOException {
+        SMTP.close();
+    }
+
+    @BeforeEach
+    void pointAtStandIn() {
+        SMTP.reset();
+        mailSender.setHost("127.0.0.1");
+        mailSender.setPort(SMTP.port());
+    }
+
+    @Test
+    void batchIsPacedMessageByMessageOverOneConnection() throws Exception {
+        List<MimeMessage> batch = messages("a", "b", "c", "d", "e");
+
+        long started = System.nanoTime();
+        emailService.send(batch, new SendRateLimiter(20));
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+        // 20/s: the first message goes at once, each further one waits its 50ms slot
+        assertThat(elapsedMillis).isGreaterThanOrEqualTo(190);
+        assertThat(SMTP.connections()).isEqualTo(1);
+        assertThat(SMTP.received()).hasSize(5);
+    }
+
+    @Test
+    void refusedMessageIsReportedAndTheRestAreSent() throws Exception {
+        SMTP.refuse("b@example.com", "550 5.1.1 No such user", 1);
+        List<MimeMessage> batch = messages("a", "b", "c");
+
+        MailSendException failure = catchThrowableOfType(MailSendException.class,
+                () -> emailService.send(batch, new SendRateLimiter(0)));
+
+        assertThat(failure.getFailedMessages()).containsOnlyKeys(batch.get(1));
+        assertThat(SMTP.received()).extracting(received -> received.recipients().get(0))
+                .containsExactly("a@example.com", "c@example.com");
+        assertThat(SMTP.connections()).isEqualTo(1);
+    }
+
+    @Test
+    void unreachableServerFailsEveryMessage() throws Exception {
+        mailSender.setPort(1);
+        List<MimeMessage> batch = messages("a", "b");
+
+        MailSendException failure = catchThrowableOfType(MailSendException.class,
+                () -> emailService.send(batch, new SendRateLimiter(0)));
+
+        assertThat(failure.getFailedMessages()).containsOnlyKeys(batch.get(0), batch.get(1));
+    }
+
+    private List<MimeMessage> messages(String... users) throws MessagingException {
+        List<MimeMessage> messages = new ArrayList<>();
+        for (String user : users) {
+            MimeMessage message = mailSender.createMimeMessage();
+            MimeMessageHelper helper = new MimeMessageHelper(message, false, "UTF-8");
+            helper.setFrom("bookfair@example.com");
+            helper.setTo(user + "@example.com");
+            helper.setSubject("Hall B opens late");
+            helper.setText("Hall B opens at 10:00 tomorrow.");
+            messages.add(message);
+        }
+        return messages;
+    }
+}
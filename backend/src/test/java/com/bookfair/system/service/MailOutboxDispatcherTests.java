@@ -0,0 +1,220 @@
+package com.bookfair.system.service;
+
+import com.bookfair.system.entity.MailOutbox;
+import com.bookfair.system.repository.MailOutboxRepository;
+import com.bookfair.system.support.SmtpStandIn;
+import com.bookfair.system.support.TestDatabase;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * MailOutboxDispatcher against an in-process SMTP server: one connection per
+ * batch slice, retry with exponential backoff, DEAD after the last attempt
+ * and the outbox depth gauges. Drains are run on the test thread.
+ */
+@SpringBootTest
+class MailOutboxDispatcherTests {
+
+    private static final SmtpStandIn SMTP = SmtpStandIn.start();
+    private static final int MAX_ATTEMPTS = 3;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        TestDatabase.register(registry);
+        registry.add("spring.mail.host", () -> "127.0.0.1");
+        registry.add("spring.mail.port", SMTP::port);
+        registry.add("spring.mail.protocol", () -> "smtp");
+        registry.add("spring.mail.properties.mail.transport.protocol", () -> "smtp");
+        registry.add("app.mail.smtp.connections", () -> "1");
+        registry.add("app.mail.smtp.rate-per-second", () -> "1000");
+        registry.add("app.mail.outbox.max-attempts", () -> String.valueOf(MAX_ATTEMPTS));
+        registry.add("app.mail.outbox.initial-backoff-seconds", () -> "30");
+        registry.add("app.mail.outbox.max-backoff-seconds", () -> "3600");
+    }
+
+    @Autowired
+    private MailOutboxDispatcher dispatcher;
+
+    @Autowired
+    private MailOutboxRepository mailOutboxRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @AfterAll
+    static void stopSmtp() throws IOException {
+        SMTP.close();
+    }
+
+    @BeforeEach
+    void clean() {
+        jdbcTemplate.update("DELETE FROM mail_outbox");
+        SMTP.reset();
+    }
+
+    @Test
+    void batchIsSentOverOneConnection() {
+        List<Long> ids = List.of(
+                announcement("a@example.com"),
+                announcement("b@example.com"),
+                announcement("c@example.com"),
+                announcement("d@example.com"),
+                reservationConfirmation("e@example.com", "RES-0000BEEF"));
+
+        dispatcher.drain();
+
+        assertThat(SMTP.connections()).isEqualTo(1);
+        assertThat(SMTP.received()).extracting(received -> received.recipients().get(0))
+                .containsExactlyInAnyOrder("a@example.com", "b@example.com", "c@example.com", "d@example.com",
+                        "e@example.com");
+        assertThat(SMTP.received()).filteredOn(received -> received.recipients().contains("e@example.com"))
+                .singleElement()
+                .satisfies(received -> assertThat(received.data()).contains("Content-ID: <qrImage>"));
+        for (Long id : ids) {
+            Map<String, Object> row = row(id);
+            assertThat(row.get("status")).isEqualTo(MailOutbox.STATUS_SENT);
+            assertThat(row.get("attempts")).isEqualTo(1);
+            assertThat(row.get("sent_at")).isNotNull();
+        }
+    }
+
+    @Test
+    void transientFailureIsRetriedWithBackoff() {
+        SMTP.refuse("flaky@example.com", "451 4.3.0 Mailbox temporarily unavailable", 2);
+        long flaky = announcement("flaky@example.com");
+        long healthy = announcement("healthy@example.com");
+
+        dispatcher.drain();
+
+        // Only the refused message is held back; the rest of the batch went out
+        assertThat(row(healthy).get("status")).isEqualTo(MailOutbox.STATUS_SENT);
+        assertRetryScheduled(flaky, 1, Duration.ofSeconds(30));
+
+        makeDue(flaky);
+        dispatcher.drain();
+        assertRetryScheduled(flaky, 2, Duration.ofSeconds(60));
+
+        makeDue(flaky);
+        dispatcher.drain();
+        assertThat(row(flaky).get("status")).isEqualTo(MailOutbox.STATUS_SENT);
+        assertThat(row(flaky).get("attempts")).isEqualTo(3);
+        assertThat(row(flaky).get("last_error")).isNull();
+        assertThat(SMTP.received()).extracting(received -> received.recipients().get(0))
+                .containsExactlyInAnyOrder("healthy@example.com", "flaky@example.com");
+    }
+
+    @Test
+    void messageIsDeadAfterMaxAttempts() {
+        SMTP.refuse("gone@example.com", "550 5.1.1 No such user", Integer.MAX_VALUE);
+        long gone = announcement("gone@example.com");
+
+        for (int attempt = 1; attempt < MAX_ATTEMPTS; attempt++) {
+            dispatcher.drain();
+            assertThat(row(gone).get("status")).isEqualTo(MailOutbox.STATUS_PENDING);
+            makeDue(gone);
+        }
+        dispatcher.drain();
+
+        Map<String, Object> row = row(gone);
+        assertThat(row.get("status")).isEqualTo(MailOutbox.STATUS_DEAD);
+        assertThat(row.get("attempts")).isEqualTo(MAX_ATTEMPTS);
+        assertThat((String) row.get("last_error")).isNotBlank();
+
+        // A DEAD row is never claimed again
+        makeDue(gone);
+        dispatcher.drain();
+        assertThat(row(gone).get("attempts")).isEqualTo(MAX_ATTEMPTS);
+        assertThat(SMTP.received()).isEmpty();
+    }
+
+    @Test
+    void depthGaugesFollowTheOutbox() {
+        LocalDateTime later = LocalDateTime.now().plusHours(1);
+        long dueLater = save(announcementRow("later@example.com").nextAttemptAt(later));
+        save(announcementRow("later2@example.com").nextAttemptAt(later));
+        save(announcementRow("dead@example.com").status(MailOutbox.STATUS_DEAD).attempts(MAX_ATTEMPTS));
+
+        dispatcher.drain();
+
+        assertThat(depth(MailOutbox.STATUS_PENDING)).isEqualTo(2);
+        assertThat(depth(MailOutbox.STATUS_DEAD)).isEqualTo(1);
+
+        makeDue(dueLater);
+        dispatcher.drain();
+
+        assertThat(depth(MailOutbox.STATUS_PENDING)).isEqualTo(1);
+        assertThat(depth(MailOutbox.STATUS_DEAD)).isEqualTo(1);
+    }
+
+    private void assertRetryScheduled(long id, int attempts, Duration backoff) {
+        Map<String, Object> row = row(id);
+        assertThat(row.get("status")).isEqualTo(MailOutbox.STATUS_PENDING);
+        assertThat(row.get("attempts")).isEqualTo(attempts);
+        assertThat((String) row.get("last_error")).isNotBlank();
+        LocalDateTime nextAttemptAt = ((Timestamp) row.get("next_attempt_at")).toLocalDateTime();
+        assertThat(nextAttemptAt).isCloseTo(LocalDateTime.now().plus(backoff), within(Duration.ofSeconds(5)));
+    }
+
+    private long announcement(String recipient) {
+        return save(announcementRow(recipient));
+    }
+
+    private MailOutbox.MailOutboxBuilder announcementRow(String recipient) {
+        return MailOutbox.builder()
+                .kind(MailOutbox.KIND_ANNOUNCEMENT)
+                .recipient(recipient)
+                .recipientName("Vendor")
+                .subject("Hall B opens late")
+                .body("Hall B opens at 10:00 tomorrow.")
+                .priority(MailOutbox.PRIORITY_BULK);
+    }
+
+    private long reservationConfirmation(String recipient, String code) {
+        return save(MailOutbox.builder()
+                .kind(MailOutbox.KIND_RESERVATION_CONFIRMED)
+                .recipient(recipient)
+                .recipientName("Vendor")
+                .contactNumber("0771234567")
+                .reservationCode(code)
+                .paymentStatus("PAID")
+                .stallDetails("A-01 (Small)"));
+    }
+
+    private long save(MailOutbox.MailOutboxBuilder mail) {
+        return mailOutboxRepository.save(mail.build()).getId();
+    }
+
+    private void makeDue(long id) {
+        jdbcTemplate.update("UPDATE mail_outbox SET next_attempt_at = ? WHERE id = ?",
+                LocalDateTime.now().minusSeconds(1), id);
+    }
+
+    private Map<String, Object> row(long id) {
+        return jdbcTemplate.queryForMap(
+                "SELECT status, attempts, next_attempt_at, last_error, sent_at FROM mail_outbox WHERE id = ?", id);
+    }
+
+    private double depth(String status) {
+        return meterRegistry.get("mail.outbox.depth").tag("status", status).gauge().value();
+    }
+}
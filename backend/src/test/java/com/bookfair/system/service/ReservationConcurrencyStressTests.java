@@ -0,0 +1,187 @@
+package com.bookfair.system.service;
+
+import com.bookfair.system.dto.request.ReservationRequest;
+import com.bookfair.system.exception.StallUnavailableException;
+import com.bookfair.system.support.FairSeeder;
+import com.bookfair.system.support.TestDatabase;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Randomized book / cancel / enable-disable traffic from many threads on a
+ * small stall pool, against a real PostgreSQL, followed by consistency checks:
+ * <ul>
+ * <li>{@code stalls.reserved} is true exactly for stalls with a CONFIRMED link,
+ * and no stall has two;</li>
+ * <li>no vendor holds more than 3 stalls and no stall is reserved and disabled;</li>
+ * <li>no lost updates: CONFIRMED links equal stalls booked minus stalls cancelled,
+ * and each stall's disabled flag matches the parity of its successful toggles;</li>
+ * <li>no deadlock, lock timeout or other unexpected error, and no hang.</li>
+ * </ul>
+ * Business refusals (stall taken, limit reached, nothing to cancel, stall
+ * reserved) are expected outcomes. Size with -Dstress.operations / -Dstress.threads.
+ */
+@SpringBootTest
+class ReservationConcurrencyStressTests {
+
+    private static final int OPERATIONS = Integer.getInteger("stress.operations", 3000);
+    private static final int THREADS = Integer.getInteger("stress.threads", 16);
+    private static final int STALLS = 12;
+    private static final int VENDORS = 16;
+    private static final long SEED = Long.getLong("stress.seed", 23L);
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        TestDatabase.register(registry);
+        registry.add("spring.datasource.hikari.maximum-pool-size", () -> String.valueOf(THREADS + 4));
+    }
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private StallService stallService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final AtomicLong stallsBooked = new AtomicLong();
+    private final AtomicLong stallsCancelled = new AtomicLong();
+    private final Map<Long, AtomicInteger> toggles = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> outcomes = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<String> unexpected = new ConcurrentLinkedQueue<>();
+
+    @Test
+    void bookCancelAndToggleConcurrently() throws Exception {
+        FairSeeder.Fair fair = new FairSeeder(jdbcTemplate, SEED).floors(1).stalls(STALLS).vendors(VENDORS, 0).seed();
+        List<Long> stallIds = jdbcTemplate.queryForList("SELECT id FROM stalls ORDER BY id", Long.class);
+        Map<Long, Boolean> initiallyDisabled = new ConcurrentHashMap<>();
+        jdbcTemplate.query("SELECT id, disabled FROM stalls", rs -> {
+            initiallyDisabled.put(rs.getLong("id"), rs.getBoolean("disabled"));
+        });
+        stallIds.forEach(id -> toggles.put(id, new AtomicInteger()));
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        for (int i = 0; i < OPERATIONS; i++) {
+            Random random = new Random(SEED * 7919 + i);
+            pool.execute(() -> runOne(random, fair.vendorIds(), stallIds));
+        }
+        pool.shutdown();
+        assertThat(pool.awaitTermination(5, TimeUnit.MINUTES)).as("operations finished (no hang)").isTrue();
+
+        assertThat(unexpected).as("deadlocks, lock failures or other unexpected errors; outcomes %s", outcomes)
+                .isEmpty();
+        assertThat(outcomes.getOrDefault("book", new AtomicInteger()).get())
+                .as("successful bookings; outcomes %s", outcomes).isPositive();
+        assertThat(outcomes.getOrDefault("cancel", new AtomicInteger()).get())
+                .as("successful cancels; outcomes %s", outcomes).isPositive();
+
+        String confirmedLinks = "SELECT rs.stall_id, r.user_id FROM reservation_stalls rs "
+                + "JOIN reservations r ON r.id = rs.reservation_id "
+                + "WHERE r.status = 'CONFIRMED' AND rs.cancelled_at IS NULL";
+
+        assertThat(jdbcTemplate.queryForList("SELECT stall_id FROM (" + confirmedLinks + ") l "
+                + "GROUP BY stall_id HAVING COUNT(*) > 1", Long.class))
+                .as("stalls in more than one CONFIRMED reservation").isEmpty();
+        assertThat(jdbcTemplate.queryForList("SELECT s.id FROM stalls s WHERE s.reserved <> EXISTS ("
+                + "SELECT 1 FROM (" + confirmedLinks + ") l WHERE l.stall_id = s.id)", Long.class))
+                .as("stalls whose reserved flag disagrees with their CONFIRMED links").isEmpty();
+        assertThat(jdbcTemplate.queryForList("SELECT user_id FROM (" + confirmedLinks + ") l "
+                + "GROUP BY user_id HAVING COUNT(*) > 3", Long.class))
+                .as("vendors holding more than 3 stalls").isEmpty();
+        assertThat(jdbcTemplate.queryForList("SELECT id FROM stalls WHERE reserved AND disabled", Long.class))
+                .as("stalls both reserved and disabled").isEmpty();
+
+        Long links = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM (" + confirmedLinks + ") l", Long.class);
+        assertThat(links).as("CONFIRMED links = stalls booked - stalls cancelled")
+                .isEqualTo(stallsBooked.get() - stallsCancelled.get());
+
+        jdbcTemplate.query("SELECT id, disabled FROM stalls", rs -> {
+            long id = rs.getLong("id");
+            boolean expected = initiallyDisabled.get(id) ^ (toggles.get(id).get() % 2 == 1);
+            assertThat(rs.getBoolean("disabled")).as("disabled flag of stall %d", id).isEqualTo(expected);
+        });
+    }
+
+    private void runOne(Random random, List<Long> vendorIds, List<Long> stallIds) {
+        long vendorId = vendorIds.get(random.nextInt(vendorIds.size()));
+        int dice = random.nextInt(100);
+        try {
+            if (dice < 50) {
+                List<Long> pick = new ArrayList<>();
+                for (int n = 1 + random.nextInt(3); pick.size() < n; ) {
+                    Long stallId = stallIds.get(random.nextInt(stallIds.size()));
+                    if (!pick.contains(stallId)) {
+                        pick.add(stallId);
+                    }
+                }
+                ReservationRequest request = new ReservationRequest();
+                request.setStallIds(pick);
+                request.setPaymentMethod(random.nextBoolean() ? "CASH_ON_DATE" : "CARD");
+                try {
+                    reservationService.createReservation(vendorId, request);
+                } catch (StallUnavailableException e) {
+                    // Only the stalls that were actually taken are reported
+                    if (e.getStallIds().isEmpty() || !pick.containsAll(e.getStallIds())) {
+                        unexpected.add("unavailable stalls " + e.getStallIds() + " not within " + pick);
+                    }
+                    throw e;
+                }
+                stallsBooked.addAndGet(pick.size());
+                count("book");
+            } else if (dice < 85) {
+                List<Long> held = jdbcTemplate.queryForList("SELECT rs.stall_id FROM reservation_stalls rs "
+                        + "JOIN reservations r ON r.id = rs.reservation_id "
+                        + "WHERE r.user_id = ? AND r.status = 'CONFIRMED' AND rs.cancelled_at IS NULL",
+                        Long.class, vendorId);
+                Long stallId = held.isEmpty()
+                        ? stallIds.get(random.nextInt(stallIds.size()))
+                        : held.get(random.nextInt(held.size()));
+                reservationService.cancelStallReservation(vendorId, stallId);
+                stallsCancelled.incrementAndGet();
+                count("cancel");
+            } else {
+                Long stallId = stallIds.get(random.nextInt(stallIds.size()));
+                stallService.toggleDisabled(stallId);
+                toggles.get(stallId).incrementAndGet();
+                count("toggle");
+            }
+        } catch (StallUnavailableException e) {
+            count("refused: stall unavailable");
+        } catch (RuntimeException e) {
+            String message = String.valueOf(e.getMessage());
+            if (e instanceof IllegalStateException && message.startsWith("Cannot disable a reserved stall")) {
+                count("refused: stall reserved");
+            } else if (message.startsWith("Limit Exceeded")) {
+                count("refused: limit");
+            } else if (message.startsWith("Active reservation not found")) {
+                count("refused: nothing to cancel");
+            } else {
+                unexpected.add(e.getClass().getName() + ": " + message);
+                count("unexpected");
+            }
+        }
+    }
+
+    private void count(String outcome) {
+        outcomes.computeIfAbsent(outcome, k -> new AtomicInteger()).incrementAndGet();
+    }
+}
@@ -0,0 +1,90 @@
+package com.bookfair.system.service;
+
+import com.bookfair.system.dto.UserProfileResponse;
+import com.bookfair.system.dto.request.AdminCreateUserRequest;
+import com.bookfair.system.dto.request.AdminUpdateUserRequest;
+import com.bookfair.system.security.services.PrincipalCache;
+import com.bookfair.system.security.services.UserDetailsImpl;
+import com.bookfair.system.support.TestDatabase;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Admin user edits and the cached authentication principals they must evict.
+ */
+@SpringBootTest
+class UserServiceTests {
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        TestDatabase.register(registry);
+    }
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Test
+    void updateKeepingTheEmailEvictsTheCachedPrincipal() {
+        UserProfileResponse created = userService.createUser(vendor("same-email@example.com"));
+        UserDetailsImpl before = principalCache.get("same-email@example.com");
+        assertThat(authority(before)).isEqualTo("ROLE_VENDOR");
+
+        AdminUpdateUserRequest update = new AdminUpdateUserRequest();
+        update.setEmail("same-email@example.com");
+        update.setRole("EMPLOYEE");
+        UserProfileResponse updated = userService.updateUser(created.getId(), update);
+
+        assertThat(updated.getEmail()).isEqualTo("same-email@example.com");
+        assertThat(updated.getRole()).isEqualTo("EMPLOYEE");
+        UserDetailsImpl after = principalCache.get("same-email@example.com");
+        assertThat(after).isNotSameAs(before);
+        assertThat(authority(after)).isEqualTo("ROLE_EMPLOYEE");
+    }
+
+    @Test
+    void updateChangingTheEmailEvictsTheOldPrincipal() {
+        UserProfileResponse created = userService.createUser(vendor("old-email@example.com"));
+        UserDetailsImpl before = principalCache.get("old-email@example.com");
+
+        AdminUpdateUserRequest update = new AdminUpdateUserRequest();
+        update.setEmail("new-email@example.com");
+        userService.updateUser(created.getId(), update);
+
+        assertThat(principalCache.get("new-email@example.com").getId()).isEqualTo(before.getId());
+        assertThat(catchLoad("old-email@example.com")).isNotNull();
+    }
+
+    private AdminCreateUserRequest vendor(String email) {
+        AdminCreateUserRequest request = new AdminCreateUserRequest();
+        request.setName("Cache Test Vendor");
+        request.setEmail(email);
+        request.setPassword("secret123");
+        request.setRole("VENDOR");
+        request.setContactNumber("0771234567");
+        request.setBusinessName("Cache Test Books");
+        return request;
+    }
+
+    private static String authority(UserDetailsImpl principal) {
+        return principal.getAuthorities().stream().map(GrantedAuthority::getAuthority).findFirst().orElse(null);
+    }
+
+    /** The old e-mail no longer resolves once its cache entry is gone. */
+    private RuntimeException catchLoad(String email) {
+        try {
+            principalCache.get(email);
+            return null;
+        } catch (RuntimeException e) {
+            return e;
+        }
+    }
+}
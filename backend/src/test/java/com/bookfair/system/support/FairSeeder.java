@@ -0,0 +1,217 @@
+package com.bookfair.system.support;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Seeds a realistic fair with plain JDBC batches: floors of stalls, vendors
+ * with genres, confirmed reservations with payments (some partly cancelled
+ * the way ReservationService does it) and a few disabled stalls.
+ * The same seed always produces the same data.
+ */
+public final class FairSeeder {
+
+    public static final String PASSWORD = "password";
+    public static final String ADMIN_EMAIL = "admin@fair.test";
+    public static final String EMPLOYEE_EMAIL = "employee@fair.test";
+
+    private static final String[] STALL_SIZES = { "SMALL", "MEDIUM", "LARGE" };
+    private static final double[] STALL_PRICES = { 5000.0, 10000.0, 15000.0 };
+    private static final String[] GENRES = { "Fiction", "Children", "Education", "Science", "History",
+            "Religion", "Poetry", "Comics", "Travel", "Cookery", "Biography", "Languages" };
+
+    private static final String TABLES = "payments, reservation_stalls, reservations, user_genres, duties, "
+            + "stalls, stall_types, floors, genres, users, mail_outbox, bulk_mail_jobs";
+
+    private final JdbcTemplate jdbc;
+    private final Random random;
+
+    private int floors = 5;
+    private int stalls = 500;
+    private int vendors = 300;
+    private int vendorsWithReservations = 200;
+
+    public FairSeeder(JdbcTemplate jdbc, long seed) {
+        this.jdbc = jdbc;
+        this.random = new Random(seed);
+    }
+
+    public FairSeeder floors(int floors) {
+        this.floors = floors;
+        return this;
+    }
+
+    public FairSeeder stalls(int stalls) {
+        this.stalls = stalls;
+        return this;
+    }
+
+    public FairSeeder vendors(int vendors, int withReservations) {
+        this.vendors = vendors;
+        this.vendorsWithReservations = withReservations;
+        return this;
+    }
+
+    /** Empties every table and seeds a new fair. */
+    public Fair seed() {
+        jdbc.execute("TRUNCATE TABLE " + TABLES + " RESTART IDENTITY CASCADE");
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        String passwordHash = new BCryptPasswordEncoder().encode(PASSWORD);
+
+        // Reference data
+        List<Object[]> floorRows = new ArrayList<>();
+        for (int f = 1; f <= floors; f++) {
+            floorRows.add(new Object[] { (long) f, "Hall " + (char) ('A' + f - 1) });
+        }
+        jdbc.batchUpdate("INSERT INTO floors (id, floor_name) VALUES (?, ?)", floorRows);
+
+        List<Object[]> typeRows = new ArrayList<>();
+        for (int t = 0; t < STALL_SIZES.length; t++) {
+            typeRows.add(new Object[] { (long) t + 1, STALL_SIZES[t], STALL_PRICES[t] });
+        }
+        jdbc.batchUpdate("INSERT INTO stall_types (id, size, price) VALUES (?, ?, ?)", typeRows);
+
+        List<Object[]> genreRows = new ArrayList<>();
+        for (int g = 0; g < GENRES.length; g++) {
+            genreRows.add(new Object[] { (long) g + 1, GENRES[g] });
+        }
+        jdbc.batchUpdate("INSERT INTO genres (id, name) VALUES (?, ?)", genreRows);
+
+        // Stalls, spread evenly over the floors
+        int perFloor = (stalls + floors - 1) / floors;
+        List<Long> stallIds = new ArrayList<>(stalls);
+        int[] stallTypes = new int[stalls];
+        List<Object[]> stallRows = new ArrayList<>(stalls);
+        for (int s = 0; s < stalls; s++) {
+            long id = s + 1;
+            long floorId = s / perFloor + 1;
+            String code = (char) ('A' + floorId - 1) + String.valueOf(s % perFloor + 1);
+            stallTypes[s] = random.nextInt(STALL_SIZES.length);
+            stallIds.add(id);
+            stallRows.add(new Object[] { id, floorId, code, (long) stallTypes[s] + 1 });
+        }
+        jdbc.batchUpdate("INSERT INTO stalls (id, floor_id, stall_code, stall_type_id, reserved, disabled) "
+                + "VALUES (?, ?, ?, ?, false, false)", stallRows);
+
+        // Users: one admin, one employee, then the vendors
+        List<Object[]> userRows = new ArrayList<>();
+        userRows.add(userRow(1, "Fair Admin", ADMIN_EMAIL, passwordHash, null, "ADMIN", now));
+        userRows.add(userRow(2, "Gate Employee", EMPLOYEE_EMAIL, passwordHash, null, "EMPLOYEE", now));
+        List<Long> vendorIds = new ArrayList<>(vendors);
+        List<Object[]> userGenreRows = new ArrayList<>();
+        for (int v = 0; v < vendors; v++) {
+            long id = v + 3;
+            vendorIds.add(id);
+            userRows.add(userRow(id, "Vendor " + (v + 1), vendorEmail(v + 1), passwordHash,
+                    "Books " + (v + 1), "VENDOR", now.minusDays(random.nextInt(60))));
+            List<Integer> genres = new ArrayList<>();
+            for (int g = 0; g < GENRES.length; g++) {
+                genres.add(g + 1);
+            }
+            Collections.shuffle(genres, random);
+            for (int g = 0, n = 1 + random.nextInt(3); g < n; g++) {
+                userGenreRows.add(new Object[] { id, (long) genres.get(g) });
+            }
+        }
+        jdbc.batchUpdate("INSERT INTO users (id, name, email, contact_number, password, business_name, role, "
+                + "enabled, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, true, ?)", userRows);
+        jdbc.batchUpdate("INSERT INTO user_genres (user_id, genre_id) VALUES (?, ?)", userGenreRows);
+
+        // Reservations of 1-3 stalls for the first vendors; every tenth multi-stall
+        // reservation has its last stall cancelled.
+        List<Long> shuffled = new ArrayList<>(stallIds);
+        Collections.shuffle(shuffled, random);
+        int next = 0;
+        long reservationId = 0;
+        long linkId = 0;
+        List<Object[]> reservationRows = new ArrayList<>();
+        List<Object[]> linkRows = new ArrayList<>();
+        List<Object[]> paymentRows = new ArrayList<>();
+        List<Object[]> reservedRows = new ArrayList<>();
+        List<String> confirmedTokens = new ArrayList<>();
+        for (int v = 0; v < Math.min(vendorsWithReservations, vendors); v++) {
+            int count = 1 + random.nextInt(3);
+            if (next + count > shuffled.size() * 3 / 4) {
+                break; // keep a quarter of the fair free for bookings
+            }
+            long userId = vendorIds.get(v);
+            long id = ++reservationId;
+            String token = String.format("RES-%08X", id);
+            Timestamp bookedAt = Timestamp.valueOf(now.minusHours(random.nextInt(24 * 30)));
+            reservationRows.add(new Object[] { id, userId, bookedAt, token, "CONFIRMED" });
+            confirmedTokens.add(token);
+            double total = 0;
+            for (int s = 0; s < count; s++) {
+                long stallId = shuffled.get(next++);
+                total += STALL_PRICES[stallTypes[(int) stallId - 1]];
+                boolean cancelled = count > 1 && s == count - 1 && id % 10 == 0;
+                linkRows.add(new Object[] { ++linkId, id, stallId, cancelled ? bookedAt : null });
+                if (!cancelled) {
+                    reservedRows.add(new Object[] { stallId });
+                }
+            }
+            boolean cash = random.nextInt(3) == 0;
+            paymentRows.add(new Object[] { id, id, total, cash ? "PENDING" : "PAID",
+                    cash ? "CASH_ON_DATE" : "CARD", cash ? null : bookedAt });
+        }
+        jdbc.batchUpdate("INSERT INTO reservations (id, user_id, reservation_date, qr_code_token, status) "
+                + "VALUES (?, ?, ?, ?, ?)", reservationRows);
+        jdbc.batchUpdate("INSERT INTO reservation_stalls (id, reservation_id, stall_id, cancelled_at) "
+                + "VALUES (?, ?, ?, ?)", linkRows);
+        jdbc.batchUpdate("INSERT INTO payments (id, reservation_id, amount, payment_status, payment_method, "
+                + "payment_date) VALUES (?, ?, ?, ?, ?, ?)", paymentRows);
+        jdbc.batchUpdate("UPDATE stalls SET reserved = true WHERE id = ?", reservedRows);
+
+        // A few free stalls are disabled by the admin
+        List<Long> freeStallIds = new ArrayList<>(shuffled.subList(next, shuffled.size()));
+        List<Object[]> disabledRows = new ArrayList<>();
+        for (int i = freeStallIds.size() - 1; i >= 0; i -= 25) {
+            disabledRows.add(new Object[] { freeStallIds.remove(i) });
+        }
+        jdbc.batchUpdate("UPDATE stalls SET disabled = true WHERE id = ?", disabledRows);
+        Collections.sort(freeStallIds);
+
+        for (String table : new String[] { "floors", "stall_types", "genres", "stalls", "users",
+                "reservations", "reservation_stalls", "payments" }) {
+            jdbc.execute("SELECT setval(pg_get_serial_sequence('" + table + "', 'id'), "
+                    + "COALESCE((SELECT MAX(id) FROM " + table + "), 0) + 1, false)");
+        }
+
+        List<Long> freeVendorIds = new ArrayList<>(
+                vendorIds.subList(Math.min(vendorsWithReservations, vendors), vendors));
+        return new Fair(vendorIds, freeVendorIds, freeStallIds, confirmedTokens);
+    }
+
+    public static String vendorEmail(int number) {
+        return "vendor" + number + "@fair.test";
+    }
+
+    /** Vendor user ids are assigned after the admin (1) and the employee (2). */
+    public static String vendorEmailForId(long userId) {
+        return vendorEmail((int) userId - 2);
+    }
+
+    private static Object[] userRow(long id, String name, String email, String passwordHash, String business,
+            String role, LocalDateTime createdAt) {
+        return new Object[] { id, name, email, String.format("07%08d", id), passwordHash, business, role,
+                Timestamp.valueOf(createdAt) };
+    }
+
+    /**
+     * What was seeded. {@code freeVendorIds} hold no reservation yet and
+     * {@code freeStallIds} are neither reserved nor disabled.
+     */
+    public record Fair(List<Long> vendorIds, List<Long> freeVendorIds, List<Long> freeStallIds,
+            List<String> confirmedTokens) {
+
+        public static final long ADMIN_ID = 1L;
+        public static final long EMPLOYEE_ID = 2L;
+    }
+}
@@ -0,0 +1,55 @@
+package com.bookfair.system.support;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.test.context.DynamicPropertyRegistry;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * In-process PostgreSQL shared by the integration tests (started once per JVM).
+ *
+ * The core tables are created from the entities (they are managed outside the
+ * application in production), then schema.sql adds the rest exactly as on a
+ * real start. Mail is pointed at a closed local port so the outbox never
+ * reaches a real SMTP server.
+ */
+public final class TestDatabase {
+
+    private static EmbeddedPostgres postgres;
+
+    private TestDatabase() {
+    }
+
+    public static synchronized EmbeddedPostgres get() {
+        if (postgres == null) {
+            try {
+                postgres = EmbeddedPostgres.start();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not start embedded PostgreSQL", e);
+            }
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    postgres.close();
+                } catch (IOException ignored) {
+                    // JVM is exiting
+                }
+            }));
+        }
+        return postgres;
+    }
+
+    /** Points the application context at the embedded database; call from a @DynamicPropertySource. */
+    public static void register(DynamicPropertyRegistry registry) {
+        String url = get().getJdbcUrl("postgres", "postgres");
+        registry.add("spring.datasource.url", () -> url);
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "create");
+        registry.add("spring.jpa.defer-datasource-initialization", () -> "true");
+        registry.add("spring.mail.host", () -> "127.0.0.1");
+        registry.add("spring.mail.port", () -> "1");
+        registry.add("spring.mail.debug", () -> "false");
+        registry.add("app.mail.outbox.poll-seconds", () -> "3600");
+    }
+}
@@ -0,0 +1,32 @@
+package com.bookfair.system.support;
+
+import com.bookfair.system.entity.User;
+import com.bookfair.system.security.jwt.JwtUtils;
+import com.bookfair.system.security.services.UserDetailsImpl;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+/** Signs "Authorization: Bearer" values for seeded users without going through /signin. */
+public final class TestTokens {
+
+    private TestTokens() {
+    }
+
+    public static String bearer(JwtUtils jwtUtils, long userId, String email, String role) {
+        User user = User.builder().id(userId).email(email).role(role).password("").build();
+        UserDetailsImpl principal = UserDetailsImpl.build(user);
+        return "Bearer " + jwtUtils.generateJwtToken(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    public static String admin(JwtUtils jwtUtils) {
+        return bearer(jwtUtils, FairSeeder.Fair.ADMIN_ID, FairSeeder.ADMIN_EMAIL, "ADMIN");
+    }
+
+    public static String employee(JwtUtils jwtUtils) {
+        return bearer(jwtUtils, FairSeeder.Fair.EMPLOYEE_ID, FairSeeder.EMPLOYEE_EMAIL, "EMPLOYEE");
+    }
+
+    public static String vendor(JwtUtils jwtUtils, long userId) {
+        return bearer(jwtUtils, userId, FairSeeder.vendorEmailForId(userId), "VENDOR");
+    }
+}
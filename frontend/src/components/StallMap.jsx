@@ -142,54 +142,61 @@ const StallMap = () => {
   const activeHall = hallName || null;
 
   useEffect(() => {
-    const fetchStalls = () => {
-      StallService.getAllStalls()
-        .then((res) => {
-          // console.log("Stalls loaded:", res.data); // Debug log (Optional: remove to reduce noise)
-          if (Array.isArray(res.data)) {
-            setStalls(res.data);
-
-            // Sync Local Storage with Backend
-            const localPaid = JSON.parse(localStorage.getItem("paidReservations") || "[]");
-            const validatedPaid = localPaid.filter((paidItem) => {
-              const paidId = typeof paidItem === 'object' ? paidItem.id : paidItem;
-              const stall = res.data.find((s) => s.id === paidId);
-              if (stall && !stall.reserved) {
-                return false;
-              }
-              return true;
-            });
-
-            if (validatedPaid.length !== localPaid.length) {
-              console.warn("Found stale reservations in local storage. Cleaning up...", {
-                before: localPaid,
-                after: validatedPaid
-              });
-              localStorage.setItem("paidReservations", JSON.stringify(validatedPaid));
-              setPaidReservations(validatedPaid);
-              window.dispatchEvent(new Event("paidReservationsUpdated"));
-            }
-
-          } else {
-            console.error("API returned non-array for stalls:", res.data);
-            setStalls([]);
-          }
-        })
-        .catch((err) => {
-          console.error("Error loading stalls:", err);
-          // Only clear stalls if it's a critical failure, otherwise keep old data
-          // setStalls([]); 
+    // Drop locally remembered reservations the backend no longer reports as reserved
+    const syncPaidWithBackend = (allStalls) => {
+      const localPaid = JSON.parse(localStorage.getItem("paidReservations") || "[]");
+      const validatedPaid = localPaid.filter((paidItem) => {
+        const paidId = typeof paidItem === 'object' ? paidItem.id : paidItem;
+        const stall = allStalls.find((s) => s.id === paidId);
+        if (stall && !stall.reserved) {
+          return false;
+        }
+        return true;
+      });
+
+      if (validatedPaid.length !== localPaid.length) {
+        console.warn("Found stale reservations in local storage. Cleaning up...", {
+          before: localPaid,
+          after: validatedPaid
         });
+        localStorage.setItem("paidReservations", JSON.stringify(validatedPaid));
+        setPaidReservations(validatedPaid);
+        window.dispatchEvent(new Event("paidReservationsUpdated"));
+      }
     };
 
-    // Initial fetch
-    fetchStalls();
+    const applyChanges = (changes) => {
+      setStalls((current) => {
+        let next;
+        if (changes.full) {
+          next = changes.stalls;
+        } else {
+          const byId = new Map(current.map((s) => [s.id, s]));
+          changes.stalls.forEach((s) => byId.set(s.id, s));
+          (changes.removed || []).forEach((id) => byId.delete(id));
+          next = Array.from(byId.values()).sort((a, b) => a.id - b.id);
+        }
+        syncPaidWithBackend(next);
+        return next;
+      });
+    };
 
-    // Set up polling every 3 seconds
-    const intervalId = setInterval(fetchStalls, 3000);
+    // Live updates over Server-Sent Events; the first event carries the full list.
+    // EventSource reconnects on its own and resumes from the last event id.
+    const source = new EventSource("http://localhost:8080/api/stalls/stream");
+    source.addEventListener("changes", (event) => {
+      try {
+        applyChanges(JSON.parse(event.data));
+      } catch (err) {
+        console.error("Error applying stall changes:", err);
+      }
+    });
+    source.onerror = (err) => {
+      console.error("Stall stream interrupted, reconnecting...", err);
+    };
 
     // Cleanup on unmount
-    return () => clearInterval(intervalId);
+    return () => source.close();
   }, []);
 
   const getHallStatus = (visualHallName) => {
@@ -5,7 +5,7 @@ import { CheckCircleIcon, HomeIcon, QrCodeIcon } from "@heroicons/react/24/outli
 const BookingConfirmation = () => {
   const location = useLocation();
   const navigate = useNavigate();
-  const { reservationId, qrCodeImage, stalls, totalAmount } = location.state || {};
+  const { reservationId, qrCodeImage, qrCodeUrl, stalls, totalAmount } = location.state || {};
 
   React.useEffect(() => {
     if (reservationId && stalls && stalls.length > 0) {
@@ -80,6 +80,12 @@ const BookingConfirmation = () => {
                   alt="QR Code"
                   className="w-48 h-48 object-contain"
                 />
+              ) : qrCodeUrl ? (
+                <img
+                  src={`http://localhost:8080${qrCodeUrl}`}
+                  alt="QR Code"
+                  className="w-48 h-48 object-contain"
+                />
               ) : reservationId ? (
                 <img
                   src={`https://api.qrserver.com/v1/create-qr-code/?size=250x250&data=${reservationId}`}
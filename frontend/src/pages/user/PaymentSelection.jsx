@@ -40,6 +40,7 @@ const PaymentSelection = () => {
         state: {
           reservationId: res.data.reservationCode,
           qrCodeImage: res.data.qrCodeImage,
+          qrCodeUrl: res.data.qrCodeUrl,
           stalls: stalls,
           totalAmount: payload.totalAmount
         }
@@ -69,6 +70,11 @@ const PaymentSelection = () => {
         }
       }
 
+      if (err.response?.status === 409 && errorMessage?.message) {
+        showAlert("Stall Unavailable", errorMessage.message);
+        return;
+      }
+
       showAlert("Payment Error", typeof errorMessage === "string" ? errorMessage : "Payment failed. Please try again.");
     } finally {
       setLoading(false);
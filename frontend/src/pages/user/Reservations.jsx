@@ -154,6 +154,12 @@ const Reservations = () => {
                             alt="QR Code"
                             className="w-20 h-20 object-contain"
                           />
+                        ) : stall.qrCodeUrl ? (
+                          <img
+                            src={`http://localhost:8080${stall.qrCodeUrl}`}
+                            alt="QR Code"
+                            className="w-20 h-20 object-contain"
+                          />
                         ) : (
                           <img
                             src={`https://api.qrserver.com/v1/create-qr-code/?size=150x150&data=${stall.reservationCode}`}